@@ -35,6 +35,36 @@ public class ExperimentRunner {
 			exp.setHierarchyRandomSeed(readProperty(prop, "hierarchyRandomSeed"));
 			exp.setInitialStatesSeed(readProperty(prop, "initialStatesSeed"));
 			exp.setAvppsPerAvpp(readProperty(prop, "avppsPerAvpp"));
+			if (prop.containsKey("temporalSumTree"))
+				exp.setTemporalSumTree(readProperty(prop, "temporalSumTree") != 0);
+			if (prop.containsKey("holeDetectionThreads"))
+				exp.setHoleDetectionThreads(readProperty(prop, "holeDetectionThreads"));
+			if (prop.containsKey("resolution"))
+				exp.setResolution(Double.parseDouble(prop.getProperty("resolution")));
+			if (prop.containsKey("maxRegions"))
+				exp.setMaxRegions(readProperty(prop, "maxRegions"));
+			if (prop.containsKey("compactionBudget"))
+				exp.setCompactionBudget(Double.parseDouble(prop.getProperty("compactionBudget")));
+			if (prop.containsKey("regionCacheSize"))
+				exp.setRegionCacheSize(readProperty(prop, "regionCacheSize"));
+			if (prop.containsKey("rollingTemporalAbstraction"))
+				exp.setRollingTemporalAbstraction(readProperty(prop, "rollingTemporalAbstraction") != 0);
+			if (prop.containsKey("exactStopTimes"))
+				exp.setExactStopTimes(readProperty(prop, "exactStopTimes") != 0);
+			if (prop.containsKey("loadEnvelopeMargin"))
+				exp.setLoadEnvelopeMargin(Double.parseDouble(prop.getProperty("loadEnvelopeMargin")));
+			if (prop.containsKey("propagationThreads"))
+				exp.setPropagationThreads(readProperty(prop, "propagationThreads"));
+			if (prop.containsKey("samplingThreads"))
+				exp.setSamplingThreads(readProperty(prop, "samplingThreads"));
+			if (prop.containsKey("adaptiveSamplingTolerance"))
+				exp.setAdaptiveSamplingTolerance(Double.parseDouble(prop.getProperty("adaptiveSamplingTolerance")));
+			if (prop.containsKey("warmStartSampling"))
+				exp.setWarmStartSampling(readProperty(prop, "warmStartSampling") != 0);
+			if (prop.containsKey("parametricSampling"))
+				exp.setParametricSampling(readProperty(prop, "parametricSampling") != 0);
+			if (prop.containsKey("monotoneSampling"))
+				exp.setMonotoneSampling(readProperty(prop, "monotoneSampling") != 0);
 			exp.setOriginatingProperties(prop);
 		} catch (Exception e) {
 			e.printStackTrace();
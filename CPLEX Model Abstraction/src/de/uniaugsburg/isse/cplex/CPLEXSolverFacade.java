@@ -1,5 +1,12 @@
 package de.uniaugsburg.isse.cplex;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import ilog.concert.IloConstraint;
 import ilog.concert.IloException;
 import ilog.concert.IloIntMap;
 import ilog.concert.IloIntRange;
@@ -8,7 +15,9 @@ import ilog.concert.IloMapIndexArray;
 import ilog.concert.IloNumDExprMap;
 import ilog.concert.IloNumExpr;
 import ilog.concert.IloNumMap;
+import ilog.concert.IloNumVar;
 import ilog.concert.IloNumVarMap;
+import ilog.concert.IloRange;
 import ilog.concert.IloSymbolSet;
 import ilog.cp.IloCP;
 import ilog.cplex.IloCplex;
@@ -40,6 +49,11 @@ public class CPLEXSolverFacade implements SolverFacade {
 	private int timeLimit;
 	private boolean usePresolve = false;
 	private boolean useInitialSolution = false;
+	private boolean useWarmStart = false;
+	// production and running of the last solution per plant, from step warmStartFrom on
+	private Map<String, double[]> warmStartProduction;
+	private Map<String, double[]> warmStartRunning;
+	private int warmStartFrom;
 
 	public boolean isSimplified() {
 		return this.isSimplified;
@@ -72,8 +86,14 @@ public class CPLEXSolverFacade implements SolverFacade {
 		}
 	}
 
-	@Override
-	public void solve(String modelFile, String dataFile) {
+	/**
+	 * Generates the model without solving it, for repeated solves that only change bounds, see setRangeBounds and
+	 * resolve
+	 * 
+	 * @param modelFile
+	 * @param dataFile
+	 */
+	public void generate(String modelFile, String dataFile) {
 		if (this.factory == null)
 			this.setUpCplex();
 
@@ -120,6 +140,11 @@ public class CPLEXSolverFacade implements SolverFacade {
 		}
 
 		this.model.generate();
+	}
+
+	@Override
+	public void solve(String modelFile, String dataFile) {
+		this.generate(modelFile, dataFile);
 
 		if (this.useInitialSolution) {
 			IloOplCplexVectors vecs = this.factory.createOplCplexVectors();
@@ -132,6 +157,8 @@ public class CPLEXSolverFacade implements SolverFacade {
 			vecs.attach(energyProductionVars, initProductionValues);
 			vecs.attach(runningVars, initRunningValues);
 			vecs.setVectors(this.cplex);
+		} else if (this.useWarmStart && this.warmStartProduction != null) {
+			this.setWarmStartVectors();
 		}
 		try {
 			long milliSeconds = System.currentTimeMillis();
@@ -154,14 +181,120 @@ public class CPLEXSolverFacade implements SolverFacade {
 			}
 		}
 
-		if (this.solved) {
-			this.model.postProcess();
+		if (this.solved)
+			this.readSolution();
+	}
+
+	/**
+	 * Solves the generated model again, e.g. after setRangeBounds
+	 */
+	public void resolve() {
+		try {
+			this.solved = this.cplex.solve();
+		} catch (IloException e) {
+			e.printStackTrace();
+			this.solved = false;
+		}
+		if (this.solved)
+			this.readSolution();
+	}
 
-			this.controllablePlants = this.model.getElement("ControllablePlants").asSymbolSet();
-			this.timeRange = this.model.getElement("TIMERANGE").asIntRange();
-			this.energyProductionMap = this.model.getElement("energyProduction").asNumVarMap();
-			this.runningMap = this.model.getElement("running").asIntMap();
-			this.totalProductionMap = this.model.getElement("totalProduction").asNumExprMap();
+	/**
+	 * Changes the bounds of a named range constraint of the generated model
+	 * 
+	 * @param name
+	 * @param lower
+	 * @param upper
+	 */
+	public void setRangeBounds(String name, double lower, double upper) {
+		IloConstraint constraint = this.model.getElement(name).asConstraint();
+		if (!(constraint instanceof IloRange))
+			throw new IllegalArgumentException(name + " is not a range constraint");
+		try {
+			((IloRange) constraint).setBounds(lower, upper);
+		} catch (IloException e) {
+			throw new RuntimeException("Could not bound " + name, e);
+		}
+	}
+
+	private void readSolution() {
+		this.model.postProcess();
+
+		this.controllablePlants = this.model.getElement("ControllablePlants").asSymbolSet();
+		this.timeRange = this.model.getElement("TIMERANGE").asIntRange();
+		this.energyProductionMap = this.model.getElement("energyProduction").asNumVarMap();
+		this.runningMap = this.model.getElement("running").asIntMap();
+		this.totalProductionMap = this.model.getElement("totalProduction").asNumExprMap();
+		if (this.useWarmStart)
+			this.keepWarmStart();
+	}
+
+	private IloIntRange getWarmStartRange() {
+		// variables are defined one step beyond TIMERANGE on both sides
+		if (this.model.hasElement("DEF_TIMERANGE"))
+			return this.model.getElement("DEF_TIMERANGE").asIntRange();
+		return this.model.getElement("TIMERANGE").asIntRange();
+	}
+
+	/**
+	 * Keeps production and running of the solution as start of the next solve; step 0 is the given initial state
+	 * and left out
+	 */
+	private void keepWarmStart() {
+		IloIntRange steps = this.getWarmStartRange();
+		this.warmStartFrom = Math.max(steps.getLB(), 1);
+		int length = steps.getUB() - this.warmStartFrom + 1;
+		this.warmStartProduction = new HashMap<String, double[]>(this.controllablePlants.getSize() * 2);
+		this.warmStartRunning = new HashMap<String, double[]>(this.controllablePlants.getSize() * 2);
+		for (int i = 0; i < this.controllablePlants.getSize(); ++i) {
+			String plant = this.controllablePlants.getValue(i);
+			double[] production = new double[length];
+			double[] running = new double[length];
+			for (int t = 0; t < length; ++t) {
+				production[t] = this.getProduction(plant, this.warmStartFrom + t);
+				running[t] = this.getRunning(plant, this.warmStartFrom + t) ? 1.0 : 0.0;
+			}
+			this.warmStartProduction.put(plant, production);
+			this.warmStartRunning.put(plant, running);
+		}
+	}
+
+	/**
+	 * Passes the kept solution as starting point for all plants and steps the generated model shares with it
+	 */
+	private void setWarmStartVectors() {
+		try {
+			IloSymbolSet plants = this.model.getElement("ControllablePlants").asSymbolSet();
+			IloIntRange steps = this.getWarmStartRange();
+			IloNumVarMap productionVars = this.model.getElement("energyProduction").asNumVarMap();
+			IloIntVarMap runningVars = this.model.getElement("running").asIntVarMap();
+			List<IloNumVar> vars = new ArrayList<IloNumVar>();
+			List<Double> values = new ArrayList<Double>();
+
+			for (Entry<String, double[]> entry : this.warmStartProduction.entrySet()) {
+				String plant = entry.getKey();
+				if (!plants.contains(plant))
+					continue;
+				double[] production = entry.getValue();
+				double[] running = this.warmStartRunning.get(plant);
+				int from = Math.max(steps.getLB(), this.warmStartFrom);
+				int to = Math.min(steps.getUB(), this.warmStartFrom + production.length - 1);
+				for (int t = from; t <= to; ++t) {
+					IloMapIndexArray id = this.factory.mapIndexArray(0);
+					id.add(plant);
+					id.add(t);
+					vars.add(productionVars.getAt(id));
+					values.add(production[t - this.warmStartFrom]);
+					vars.add(runningVars.getAt(id));
+					values.add(running[t - this.warmStartFrom]);
+				}
+			}
+			double[] x = new double[values.size()];
+			for (int i = 0; i < x.length; ++i)
+				x[i] = values.get(i);
+			this.cplex.setVectors(x, null, vars.toArray(new IloNumVar[vars.size()]), null, null, null);
+		} catch (IloException e) {
+			throw new RuntimeException("Could not set the warm start vectors", e);
 		}
 	}
 
@@ -303,4 +436,25 @@ public class CPLEXSolverFacade implements SolverFacade {
 	public void setUseInitialSolution(boolean useInitialSolution) {
 		this.useInitialSolution = useInitialSolution;
 	}
+
+	public boolean isUseWarmStart() {
+		return this.useWarmStart;
+	}
+
+	/**
+	 * Starts each solve from the production and running values of the previous solution, as far as the generated
+	 * model has the same plants and steps; an initial solution given as data takes precedence
+	 * 
+	 * @param useWarmStart
+	 */
+	public void setUseWarmStart(boolean useWarmStart) {
+		this.useWarmStart = useWarmStart;
+		if (!useWarmStart)
+			this.clearWarmStart();
+	}
+
+	public void clearWarmStart() {
+		this.warmStartProduction = null;
+		this.warmStartRunning = null;
+	}
 }
@@ -8,6 +8,15 @@ import de.uniaugsburg.isse.abstraction.types.Interval;
 import de.uniaugsburg.isse.powerplants.PowerPlantData;
 
 public class CplexModel implements AbstractModel {
+	/**
+	 * Name of the constraint bounding the input in parametric solving
+	 */
+	public static final String INPUT_RANGE = "inputRange";
+	/**
+	 * Name of the constraint bounding the objective in parametric solving, open until an output lower bound is set
+	 */
+	public static final String OUTPUT_RANGE = "outputRange";
+
 	private PowerPlantData avpp;
 	private Collection<PowerPlantData> children;
 	private CplexExporter exporter;
@@ -177,6 +186,32 @@ public class CplexModel implements AbstractModel {
 		exporter.addConstraint(constraint);
 	}
 
+	/**
+	 * Bounds the input by the named constraint INPUT_RANGE and the objective by the open OUTPUT_RANGE, replacing the
+	 * constraints added so far
+	 * 
+	 * @param lower
+	 * @param upper
+	 */
+	public void setInputRange(double lower, double upper) {
+		exporter.clearConstraints();
+		exporter.addRangeConstraint(INPUT_RANGE, inputExpr, lower, upper);
+		if (objectiveExpr != null)
+			exporter.addRangeConstraint(OUTPUT_RANGE, objectiveExpr, Double.NEGATIVE_INFINITY,
+					Double.POSITIVE_INFINITY);
+	}
+
+	public String getObjectiveExpression() {
+		return objectiveExpr;
+	}
+
+	/**
+	 * @return the minimal tolerance of the input equality
+	 */
+	public double getNumericalEps() {
+		return exporter.getNumericalEps();
+	}
+
 	@Override
 	public void addOutputLowerBound(String outputExpr, double lowerBound) {
 		String constraint = outputExpr + " >= " + lowerBound + ";";
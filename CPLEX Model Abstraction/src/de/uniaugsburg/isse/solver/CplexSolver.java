@@ -14,6 +14,11 @@ public class CplexSolver extends AbstractSolver {
 
 	private static boolean DELETE_MOD_AND_DAT_FILES = true;
 
+	private boolean generated; // facade holds the model for parametric solving
+	private double inputLower;
+	private double inputUpper;
+	private double outputLower;
+
 	public CplexSolver() {
 		this.facade = new CPLEXSolverFacade();
 		this.facade.setSimplified(true);
@@ -21,6 +26,27 @@ public class CplexSolver extends AbstractSolver {
 
 	@Override
 	public void solve() {
+		if (this.parametric) {
+			if (!this.generated) {
+				this.solveFiles(true);
+				this.generated = true;
+			}
+			this.facade.setRangeBounds(CplexModel.INPUT_RANGE, this.inputLower, this.inputUpper);
+			this.facade.setRangeBounds(CplexModel.OUTPUT_RANGE, this.outputLower, Double.MAX_VALUE);
+			this.facade.resolve();
+		} else {
+			this.solveFiles(false);
+		}
+		this.solved = this.facade.isSolved();
+	}
+
+	/**
+	 * Writes model and data to temporary files and solves them
+	 * 
+	 * @param generateOnly
+	 *            only generates the model for parametric solving
+	 */
+	private void solveFiles(boolean generateOnly) {
 		CplexModel model = (CplexModel) this.getModel();
 		String modelString = model.getCplexString();
 		// System.out.println(modelString);
@@ -36,8 +62,10 @@ public class CplexSolver extends AbstractSolver {
 
 		this.modelFile = tmpModelFile.getAbsolutePath();
 		Utils.writeFile(this.modelFile, modelString);
-		this.facade.solve(this.modelFile, this.dataFile);
-		this.solved = this.facade.isSolved();
+		if (generateOnly)
+			this.facade.generate(this.modelFile, this.dataFile);
+		else
+			this.facade.solve(this.modelFile, this.dataFile);
 
 		// delete temporary files
 		if (CplexSolver.DELETE_MOD_AND_DAT_FILES) {
@@ -46,6 +74,61 @@ public class CplexSolver extends AbstractSolver {
 		}
 	}
 
+	@Override
+	public void setInput(double value, double tolerance) {
+		if (!this.parametric) {
+			super.setInput(value, tolerance);
+			return;
+		}
+		CplexModel model = (CplexModel) this.getModel();
+		double t = Math.max(tolerance, model.getNumericalEps());
+		this.inputLower = value - t;
+		this.inputUpper = value + t;
+		this.outputLower = -Double.MAX_VALUE;
+		// only written if the model is generated again
+		model.setInputRange(this.inputLower, this.inputUpper);
+	}
+
+	@Override
+	public void setInputLowerBound(double lowerBound) {
+		if (this.parametric)
+			this.inputLower = Math.max(this.inputLower, lowerBound);
+		else
+			super.setInputLowerBound(lowerBound);
+	}
+
+	@Override
+	public void setOutputLowerBound(String decExpr, double prevResult) {
+		CplexModel model = (CplexModel) this.getModel();
+		if (this.parametric && decExpr.equals(model.getObjectiveExpression())) {
+			this.outputLower = prevResult;
+			return;
+		}
+		// changes more than the input
+		this.releaseGenerated();
+		super.setOutputLowerBound(decExpr, prevResult);
+	}
+
+	@Override
+	public void setObjective(String decExpr, boolean maximize) {
+		this.releaseGenerated();
+		super.setObjective(decExpr, maximize);
+	}
+
+	@Override
+	public void setParametric(boolean parametric) {
+		if (!parametric)
+			this.releaseGenerated();
+		super.setParametric(parametric);
+	}
+
+	private void releaseGenerated() {
+		if (this.generated) {
+			this.facade.cleanup();
+			this.generated = false;
+		}
+	}
+
 	@Override
 	public double getResult(String decExpr) {
 		if (this.isSolved()) {
@@ -63,9 +146,22 @@ public class CplexSolver extends AbstractSolver {
 		return this.facade.getObjective();
 	}
 
+	@Override
+	public void setWarmStart(boolean warmStart) {
+		super.setWarmStart(warmStart);
+		this.facade.setUseWarmStart(warmStart);
+	}
+
+	@Override
+	public void resetWarmStart() {
+		this.facade.clearWarmStart();
+	}
+
 	@Override
 	public void cleanup() {
-		this.facade.cleanup();
+		// a parametric model is kept for the next input
+		if (!this.parametric)
+			this.facade.cleanup();
 	}
 
 	/**
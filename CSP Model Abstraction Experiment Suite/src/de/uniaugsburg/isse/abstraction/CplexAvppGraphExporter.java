@@ -18,16 +18,22 @@ public class CplexAvppGraphExporter {
 
 	/**
 	 * This method creates a cplex model for a single avpp taking into account
-	 * intervals etc.
+	 * intervals etc.; temporal abstraction data exported for the children
+	 * before is forgotten
 	 * 
 	 * @param graph
 	 */
 	public void createRegionalModels(AvppGraph graph) {
+		exporter.resetTemporalExports();
+		createRegionalModelsRec(graph);
+	}
+
+	private void createRegionalModelsRec(AvppGraph graph) {
 		// postfix traversal - first get the kids right
 		Collection<PowerPlantData> children = new ArrayList<PowerPlantData>(
 				graph.getChildren().size());
 		for (AvppGraph child : graph.getChildren()) {
-			createRegionalModels(child);
+			createRegionalModelsRec(child);
 			children.add(child.getPowerPlant());
 		}
 		graph.setCplexModel(exporter.createModel(children));
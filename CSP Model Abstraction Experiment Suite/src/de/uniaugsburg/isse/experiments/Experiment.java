@@ -1,14 +1,18 @@
 package de.uniaugsburg.isse.experiments;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.SortedSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import de.uniaugsburg.isse.RandomManager;
 import de.uniaugsburg.isse.abstraction.AvppCreator;
@@ -19,10 +23,15 @@ import de.uniaugsburg.isse.abstraction.CplexExporter;
 import de.uniaugsburg.isse.abstraction.GeneralAbstraction;
 import de.uniaugsburg.isse.abstraction.SamplingAbstraction;
 import de.uniaugsburg.isse.abstraction.TemporalAbstraction;
+import de.uniaugsburg.isse.abstraction.merging.HoleDetection;
+import de.uniaugsburg.isse.abstraction.merging.ParallelHoleDetection;
+import de.uniaugsburg.isse.abstraction.merging.RegionCache;
 import de.uniaugsburg.isse.abstraction.types.Interval;
+import de.uniaugsburg.isse.abstraction.types.RegionSequence;
 import de.uniaugsburg.isse.data.PowerplantReader;
 import de.uniaugsburg.isse.data.ResidualLoadReader;
 import de.uniaugsburg.isse.experiments.ExperimentParameterLiterals.PowerplantType;
+import de.uniaugsburg.isse.powerplants.PlantStateTable;
 import de.uniaugsburg.isse.powerplants.PowerPlantData;
 import de.uniaugsburg.isse.powerplants.PowerPlantState;
 import de.uniaugsburg.isse.powerplants.RandomConstraintBuilder;
@@ -57,9 +66,9 @@ public class Experiment {
 	private int plantsPerAvpp;
 	private int avppsPerAvpp;
 	private AvppGraph graph;
-	private Map<String, PowerPlantState> allStates;
-	private Map<String, PowerPlantState> concretePlantStates;
-	private Map<String, PowerPlantState> initialStates;
+	private PlantStateTable states; // all plants and AVPPs
+	private int[] concretePlantIds;
+	private PlantStateTable.Snapshot initialStates;
 	private SolverFacade solverFacade;
 	private AbstractSolverFactory solverFactory;
 	private List<PowerPlantData> allPlants;
@@ -87,6 +96,27 @@ public class Experiment {
 	private double maxLoad;
 	private double minLoad;
 	private final double jitter = 0.001; // matches CPLEX file
+	private boolean temporalSumTree; // sum tree instead of the hole detection engine in temporal abstraction
+	private int holeDetectionThreads; // fork/join hole detection, <= 1 = sequential
+	private ParallelHoleDetection holeDetection;
+	private double resolution; // power quantum for abstraction, 0 = off
+	private int maxRegions; // compaction of feasible regions, 0 = off
+	private double compactionBudget = Double.POSITIVE_INFINITY;
+	private RegionCache regionCache; // shared by all runs of this experiment, null = off
+	private boolean rollingTemporalAbstraction;
+	private boolean exactStopTimes;
+	private double loadEnvelopeMargin = -1.0; // pruning of temporal abstraction, < 0 = off
+	private int propagationThreads; // concurrent plant propagation in temporal abstraction, <= 1 = off
+	private int samplingThreads; // concurrent solving in sampling abstraction, <= 1 = off
+	private double adaptiveSamplingTolerance; // <= 0 samples equi-distant points
+	private boolean warmStartSampling;
+	private boolean parametricSampling;
+	private boolean monotoneSampling; // successor power is declared monotonic in the current power
+	private ExecutorService propagationExecutor;
+	private long[] batchInitialStatesSeeds; // runs on this hierarchy whose first temporal abstraction is batched, null = off
+	private Map<Long, Map<PowerPlantData, RegionSequence>> batchedSequences; // per initial states seed
+	private long batchHierarchySeed;
+	private long batchAvppsSeed;
 
 	private Properties originatingProperties; // all parameters set here
 	private long timestamp;
@@ -168,14 +198,14 @@ public class Experiment {
 		if (residualLoad.length < experimentHorizon)
 			throw new RuntimeException("HALT! Experiment horizon is longer than available consumption data");
 
-		RandomManager.initialize(InitialStatesSeed);
-		initialStates = new HashMap<String, PowerPlantState>();
-		for (PowerPlantData pd : allPlants) {
-			initialStates.put(pd.getName(), getRandomInitialState(pd));
+		states = new PlantStateTable(2 * allPlants.size());
+		for (PowerPlantState ps : getRandomInitialStates(InitialStatesSeed)) {
+			states.add(ps);
 		}
 
 		// put some initial states also for AVPPs
 		initializeStates(graph);
+		initialStates = states.snapshot();
 	}
 
 	private void initializeStates(AvppGraph node) {
@@ -185,8 +215,7 @@ public class Experiment {
 		double production = 0.0;
 		for (AvppGraph child : node.getChildren()) {
 			initializeStates(child);
-			PowerPlantState childState = initialStates.get(child.getPowerPlant().getName());
-			production += childState.getPower().min;
+			production += states.getPowerMin(states.getId(child.getPowerPlant().getName()));
 		}
 
 		PowerPlantState avppState = new PowerPlantState();
@@ -196,7 +225,7 @@ public class Experiment {
 		avppState.setConsRunning(new Interval<Integer>(isRunning ? 1 : 0));
 		avppState.setConsStopping(new Interval<Integer>(isRunning ? 0 : 1));
 		avppState.setData(node.getPowerPlant());
-		initialStates.put(node.getPowerPlant().getName(), avppState);
+		states.add(avppState);
 	}
 
 	private void updateStates(AvppGraph node) {
@@ -206,29 +235,32 @@ public class Experiment {
 		double production = 0.0;
 		for (AvppGraph child : node.getChildren()) {
 			updateStates(child);
-			PowerPlantState childState = allStates.get(child.getPowerPlant().getName());
-			production += childState.getPower().min;
-			PowerPlantData pdata = childState.getData();
+			int childId = states.getId(child.getPowerPlant().getName());
+			production += states.getPowerMin(childId);
+			PowerPlantData pdata = states.getData(childId);
 
 			if (!pdata.isAVPP()) {
-				pdata.put(AbstractionParameterLiterals.CONSRUNNING_INIT, childState.getConsRunning().min.toString());
-				pdata.put(AbstractionParameterLiterals.CONSSTOPPING_INIT, childState.getConsStopping().min.toString());
-				pdata.put(AbstractionParameterLiterals.POWER_INIT, Double.toString(childState.getPower().min));
+				pdata.put(AbstractionParameterLiterals.CONSRUNNING_INIT, Integer.toString(states.getConsRunningMin(childId)));
+				pdata.put(AbstractionParameterLiterals.CONSSTOPPING_INIT, Integer.toString(states.getConsStoppingMin(childId)));
+				pdata.put(AbstractionParameterLiterals.POWER_INIT, Double.toString(states.getPowerMin(childId)));
 			}
 		}
 
-		PowerPlantState avppState = allStates.get(node.getPowerPlant().getName());
-		avppState.setPower(new Interval<Double>(production));
-		avppState.setRunning(new Interval<Boolean>(production > 0));
+		int avppId = states.getId(node.getPowerPlant().getName());
+		states.setPower(avppId, production, production);
+		states.setRunning(avppId, production > 0, production > 0);
 	}
 
-	private HashMap<String, PowerPlantState> getDeepStateCopy(Map<String, PowerPlantState> initialStates2) {
-		HashMap<String, PowerPlantState> deepCopy = new HashMap<String, PowerPlantState>(initialStates2);
-		for (Entry<String, PowerPlantState> entry : initialStates2.entrySet()) {
-			PowerPlantState state = entry.getValue().copy();
-			deepCopy.put(entry.getKey(), state);
+	/**
+	 * Initial states of all concrete plants drawn from a seed, in the order of allPlants
+	 */
+	private List<PowerPlantState> getRandomInitialStates(long seed) {
+		RandomManager.initialize(seed);
+		List<PowerPlantState> initial = new ArrayList<PowerPlantState>(allPlants.size());
+		for (PowerPlantData pd : allPlants) {
+			initial.add(getRandomInitialState(pd));
 		}
-		return deepCopy;
+		return initial;
 	}
 
 	private PowerPlantState getRandomInitialState(PowerPlantData pd) {
@@ -312,7 +344,7 @@ public class Experiment {
 	}
 
 	private void reset() {
-		allStates = getDeepStateCopy(initialStates);
+		states.restore(initialStates);
 		bookmarkBuilder = new StringBuilder();
 	}
 
@@ -337,31 +369,35 @@ public class Experiment {
 		GeneralAbstraction ga = new GeneralAbstraction();
 		node.setGeneralAbstraction(ga);
 		ga.setPowerPlants(childPlants);
+		ga.setHoleDetection(getHoleDetection());
+		ga.setResolution(resolution);
+		ga.setMaxRegions(maxRegions);
+		ga.setCompactionBudget(compactionBudget);
+		ga.setRegionCache(regionCache);
 		ga.perform();
+		statistics.reportHoleDetectionSize(ga.getPeakIntermediateSize());
+		statistics.reportCompaction(ga.getAdmittedPower(), ga.getSavedHoleConstraints());
 		PowerPlantData nodeData = node.getPowerPlant();
 		nodeData.setFeasibleRegions(ga.getFeasibleRegions());
 		nodeData.setHoles(ga.getHoles());
 
 		if (useSamplingAbstraction) {
 			SamplingAbstraction sa = new SamplingAbstraction(ga.getFeasibleRegions(), ga.getHoles());
-
-			// get concrete cplex solver
-			AbstractSolver solver = solverFactory.createSolver();
-			AbstractModel model = solverFactory.createModel();
-			model.setPlantData(node.getPowerPlant(), node.getChildrenPlantData());
-			Collection<String> dexprs = new ArrayList<String>(2);
-
-			dexprs.add(AbstractionParameterLiterals.DEXP_POWER + "Init = " + AbstractionParameterLiterals.DEXP_POWER + "[0]");
-			dexprs.add(AbstractionParameterLiterals.DEXP_POWER + "Succ = " + AbstractionParameterLiterals.DEXP_POWER + "[1]");
-			model.addDecisionExpressions(dexprs);
-			solver.setModel(model);
+			AbstractSolverFactory samplingSolverFactory = getSamplingSolverFactory(node);
 
 			Collection<String> objectives = new ArrayList<String>(1);
 			objectives.add(AbstractionParameterLiterals.DEXP_POWER + "Succ");
 
 			sa.setMaximizationDecisionExpressions(objectives);
 			sa.setMinimizationDecisionExpressions(objectives);
-			sa.setSolver(solver);
+			sa.setSolver(samplingSolverFactory.createSolver());
+			sa.setSolverFactory(samplingSolverFactory);
+			sa.setSamplingThreads(samplingThreads);
+			sa.setAdaptiveTolerance(adaptiveSamplingTolerance);
+			sa.setWarmStart(warmStartSampling);
+			sa.setParametric(parametricSampling);
+			if (monotoneSampling)
+				sa.setMonotonicDecisionExpressions(objectives);
 
 			sa.perform(samplingPoints);
 
@@ -373,26 +409,268 @@ public class Experiment {
 
 	}
 
-	private void performTemporalAbstraction(AvppGraph node) {
+	/**
+	 * Creates concrete solvers tied to a sampling model of the node
+	 * 
+	 * @param node
+	 * @return
+	 */
+	private AbstractSolverFactory getSamplingSolverFactory(final AvppGraph node) {
+		return new AbstractSolverFactory() {
+			@Override
+			public AbstractSolver createSolver() {
+				AbstractSolver solver = solverFactory.createSolver();
+				solver.setModel(createModel());
+				return solver;
+			}
+
+			@Override
+			public AbstractModel createModel() {
+				AbstractModel model = solverFactory.createModel();
+				model.setPlantData(node.getPowerPlant(), node.getChildrenPlantData());
+				Collection<String> dexprs = new ArrayList<String>(2);
+
+				dexprs.add(AbstractionParameterLiterals.DEXP_POWER + "Init = " + AbstractionParameterLiterals.DEXP_POWER + "[0]");
+				dexprs.add(AbstractionParameterLiterals.DEXP_POWER + "Succ = " + AbstractionParameterLiterals.DEXP_POWER + "[1]");
+				model.addDecisionExpressions(dexprs);
+				return model;
+			}
+		};
+	}
+
+	/**
+	 * Updates the general abstraction of all AVPPs above a plant whose power boundaries or on/off capability changed;
+	 * only the changed child is recombined in each ancestor. Sampling abstractions are left untouched.
+	 * 
+	 * @param changedPlant
+	 * @return true if the plant was found in the hierarchy
+	 */
+	public boolean propagatePlantChange(PowerPlantData changedPlant) {
+		List<AvppGraph> ancestors = getAncestors(graph, changedPlant);
+		if (ancestors == null)
+			return false;
+		ancestors.get(0).getGeneralAbstraction().updatePowerPlant(changedPlant);
+		propagateRegions(ancestors);
+		return true;
+	}
+
+	/**
+	 * Lets a plant join an AVPP of the hierarchy and updates the general abstraction of the AVPP and its ancestors
+	 * incrementally
+	 * 
+	 * @param avpp
+	 * @param plant
+	 * @return true if the AVPP was found in the hierarchy
+	 */
+	public boolean addPlant(PowerPlantData avpp, PowerPlantData plant) {
+		List<AvppGraph> ancestors = new ArrayList<AvppGraph>();
+		if (graph.getPowerPlant() == avpp) {
+			ancestors.add(graph);
+		} else {
+			List<AvppGraph> above = getAncestors(graph, avpp);
+			if (above == null)
+				return false;
+			for (AvppGraph child : above.get(0).getChildren()) {
+				if (child.getPowerPlant() == avpp)
+					ancestors.add(child);
+			}
+			ancestors.addAll(above);
+		}
+		AvppGraph node = ancestors.get(0);
+		node.getChildren().add(new AvppLeafNode(plant));
+		node.getGeneralAbstraction().addPowerPlant(plant);
+		propagateRegions(ancestors);
+		return true;
+	}
+
+	/**
+	 * Lets a plant leave its AVPP and updates the general abstraction of the AVPP and its ancestors incrementally
+	 * 
+	 * @param plant
+	 * @return true if the plant was found in the hierarchy
+	 */
+	public boolean removePlant(PowerPlantData plant) {
+		List<AvppGraph> ancestors = getAncestors(graph, plant);
+		if (ancestors == null)
+			return false;
+		AvppGraph node = ancestors.get(0);
+		Iterator<AvppGraph> children = node.getChildren().iterator();
+		while (children.hasNext()) {
+			if (children.next().getPowerPlant() == plant)
+				children.remove();
+		}
+		node.getGeneralAbstraction().removePowerPlant(plant);
+		propagateRegions(ancestors);
+		return true;
+	}
+
+	/**
+	 * @return the AVPPs above a plant, its parent first and the root last, null if the plant is not below node
+	 */
+	private List<AvppGraph> getAncestors(AvppGraph node, PowerPlantData plant) {
+		for (AvppGraph child : node.getChildren()) {
+			List<AvppGraph> ancestors = null;
+			if (child.getPowerPlant() == plant)
+				ancestors = new ArrayList<AvppGraph>();
+			else if (!(child instanceof AvppLeafNode))
+				ancestors = getAncestors(child, plant);
+			if (ancestors != null) {
+				ancestors.add(node);
+				return ancestors;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Publishes the regions of the first, already updated AVPP and recombines it in all further ones
+	 */
+	private void propagateRegions(List<AvppGraph> ancestors) {
+		for (int i = 0; i < ancestors.size(); ++i) {
+			GeneralAbstraction ga = ancestors.get(i).getGeneralAbstraction();
+			if (i > 0)
+				ga.updatePowerPlant(ancestors.get(i - 1).getPowerPlant());
+			PowerPlantData nodeData = ancestors.get(i).getPowerPlant();
+			nodeData.setFeasibleRegions(ga.getFeasibleRegions());
+			nodeData.setHoles(ga.getHoles());
+		}
+	}
+
+	private void performTemporalAbstraction(AvppGraph node, Double[] residualLoadPiece) {
 		if (node instanceof AvppLeafNode) // nothing to do
 			return;
 
 		List<PowerPlantData> childPlants = new ArrayList<PowerPlantData>(node.getChildren().size());
 		for (AvppGraph child : node.getChildren()) {
-			performTemporalAbstraction(child);
+			performTemporalAbstraction(child, residualLoadPiece);
 			childPlants.add(child.getPowerPlant());
 		}
 
-		TemporalAbstraction ta = new TemporalAbstraction();
-		node.setTemporalAbstraction(ta);
+		TemporalAbstraction ta = node.getTemporalAbstraction();
+		if (ta == null || !rollingTemporalAbstraction) {
+			ta = createTemporalAbstraction(rollingTemporalAbstraction);
+			node.setTemporalAbstraction(ta);
+		}
+		ta.setPowerPlants(childPlants); // children may have changed since the last step
+		configureTemporalAbstraction(ta, node, residualLoadPiece);
+
+		ta.perform(timeHorizon);
+		reportTemporalAbstraction(ta);
+		PowerPlantData pd = node.getPowerPlant();
+		pd.setRegionSequence(ta.getRegionSequence());
+	}
+
+	/**
+	 * The first temporal abstraction of all runs with a batched initial states seed on this hierarchy is computed once,
+	 * by one performBatch per node with a lane per seed
+	 */
+	private void useBatchedTemporalAbstraction(Double[] residualLoadPiece) {
+		if (batchedSequences == null || !batchedSequences.containsKey(InitialStatesSeed) || batchHierarchySeed != HierarchyRandomSeed
+				|| batchAvppsSeed != AvppsRandomSeed) {
+			List<Map<PowerPlantData, PowerPlantState>> laneStates = new ArrayList<Map<PowerPlantData, PowerPlantState>>(batchInitialStatesSeeds.length);
+			List<Map<PowerPlantData, RegionSequence>> laneSequences = new ArrayList<Map<PowerPlantData, RegionSequence>>(batchInitialStatesSeeds.length);
+			for (long seed : batchInitialStatesSeeds) {
+				Map<PowerPlantData, PowerPlantState> lane = new HashMap<PowerPlantData, PowerPlantState>();
+				for (PowerPlantState ps : getRandomInitialStates(seed)) {
+					lane.put(ps.getData(), ps);
+				}
+				laneStates.add(lane);
+				laneSequences.add(new HashMap<PowerPlantData, RegionSequence>());
+			}
+			performBatchedTemporalAbstraction(graph, residualLoadPiece, laneStates, laneSequences);
+
+			batchedSequences = new HashMap<Long, Map<PowerPlantData, RegionSequence>>();
+			for (int lane = 0; lane < batchInitialStatesSeeds.length; ++lane) {
+				batchedSequences.put(batchInitialStatesSeeds[lane], laneSequences.get(lane));
+			}
+			batchHierarchySeed = HierarchyRandomSeed;
+			batchAvppsSeed = AvppsRandomSeed;
+		}
+		Map<PowerPlantData, RegionSequence> sequences = batchedSequences.get(InitialStatesSeed);
+		for (PowerPlantData pd : sequences.keySet()) {
+			// data is created anew by every run, equal by name
+			getNode(graph, pd).getPowerPlant().setRegionSequence(sequences.get(pd));
+		}
+	}
+
+	private void performBatchedTemporalAbstraction(AvppGraph node, Double[] residualLoadPiece, List<Map<PowerPlantData, PowerPlantState>> laneStates,
+			List<Map<PowerPlantData, RegionSequence>> laneSequences) {
+		if (node instanceof AvppLeafNode) // nothing to do
+			return;
+
+		List<PowerPlantData> childPlants = new ArrayList<PowerPlantData>(node.getChildren().size());
+		for (AvppGraph child : node.getChildren()) {
+			performBatchedTemporalAbstraction(child, residualLoadPiece, laneStates, laneSequences);
+			childPlants.add(child.getPowerPlant());
+		}
+
+		TemporalAbstraction ta = createTemporalAbstraction(false);
 		ta.setPowerPlants(childPlants);
+		configureTemporalAbstraction(ta, node, residualLoadPiece);
+		List<RegionSequence> results = ta.performBatch(timeHorizon, laneStates, laneSequences);
+		reportTemporalAbstraction(ta);
+		for (int lane = 0; lane < results.size(); ++lane) {
+			laneSequences.get(lane).put(node.getPowerPlant(), results.get(lane));
+		}
+	}
+
+	private AvppGraph getNode(AvppGraph node, PowerPlantData pd) {
+		if (node.getPowerPlant().equals(pd))
+			return node;
+		for (AvppGraph child : node.getChildren()) {
+			AvppGraph found = getNode(child, pd);
+			if (found != null)
+				return found;
+		}
+		return null;
+	}
+
+	private TemporalAbstraction createTemporalAbstraction(boolean rolling) {
+		TemporalAbstraction ta = new TemporalAbstraction();
+		ta.setUseSumTree(temporalSumTree);
+		ta.setUseCompiledConstraints(true);
+		ta.setRolling(rolling);
+		ta.setExactStopTimes(exactStopTimes);
+		return ta;
+	}
+
+	private void configureTemporalAbstraction(TemporalAbstraction ta, AvppGraph node, Double[] residualLoadPiece) {
+		ta.setPropagationExecutor(propagationExecutor);
+		ta.setHoleDetection(getHoleDetection());
+		ta.setResolution(resolution);
+		ta.setMaxRegions(maxRegions);
+		ta.setCompactionBudget(compactionBudget);
 		ta.setGeneralHoles(node.getGeneralAbstraction().getHoles());
 		ta.setGeneralFeasibleRegions(node.getGeneralAbstraction().getFeasibleRegions());
+		setTargetEnvelope(ta, node, residualLoadPiece);
+	}
 
-		ta.perform(timeHorizon);
-		PowerPlantData pd = node.getPowerPlant();
-		pd.setAllFeasibleRegions(ta.getAllFeasibleRegions());
-		pd.setAllHoles(ta.getAllHoles());
+	private void reportTemporalAbstraction(TemporalAbstraction ta) {
+		statistics.reportPrunedIntervals(ta.getPrunedIntervals());
+		statistics.reportRecomputedPlants(ta.getRecomputedPlants());
+		statistics.reportCompaction(ta.getAdmittedPower(), ta.getSavedHoleConstraints());
+	}
+
+	/**
+	 * A node can be asked for at most the residual load plus margin minus what all other plants produce at least, and
+	 * at least the load minus margin minus what they produce at most
+	 */
+	private void setTargetEnvelope(TemporalAbstraction ta, AvppGraph node, Double[] residualLoadPiece) {
+		if (loadEnvelopeMargin < 0.0) {
+			ta.setTargetEnvelope(null, null);
+			return;
+		}
+		SortedSet<Interval<Double>> all = graph.getGeneralAbstraction().getFeasibleRegions();
+		SortedSet<Interval<Double>> own = node.getGeneralAbstraction().getFeasibleRegions();
+		double othersMin = all.first().min - own.first().min;
+		double othersMax = all.last().max - own.last().max;
+		double[] lower = new double[residualLoadPiece.length];
+		double[] upper = new double[residualLoadPiece.length];
+		for (int i = 0; i < residualLoadPiece.length; ++i) {
+			lower[i] = residualLoadPiece[i] - loadEnvelopeMargin - othersMax;
+			upper[i] = residualLoadPiece[i] + loadEnvelopeMargin - othersMin;
+		}
+		ta.setTargetEnvelope(lower, upper);
 	}
 
 	private void runRegioCentral() {
@@ -407,15 +685,47 @@ public class Experiment {
 		graphExporter.createRegionalModels(graph);
 
 		extractConcretePlants();
-		// perform general abstraction and sampling abstraction bottom up
-		timer.tick(TimerCategory.ABSTRACTION_RUNTIME.id);
-		performAbstraction(graph);
-		long elapsed = timer.tock(TimerCategory.ABSTRACTION_RUNTIME.id);
+		if (holeDetectionThreads > 1)
+			holeDetection = new ParallelHoleDetection(holeDetectionThreads);
+		try {
+			// perform general abstraction and sampling abstraction bottom up
+			timer.tick(TimerCategory.ABSTRACTION_RUNTIME.id);
+			performAbstraction(graph);
+			long elapsed = timer.tock(TimerCategory.ABSTRACTION_RUNTIME.id);
+			if (regionCache != null)
+				statistics.reportRegionCache(regionCache.getHits(), regionCache.getMisses());
 
-		solverFacade.setTimeLimit(60);
-		solverFacade.setUseInitialSolution(false);
-		statistics.setAbstractionRuntime(statistics.getAbstractionRuntime() + elapsed);
-		statistics.setFixedAbstractionRuntime(elapsed);
+			solverFacade.setTimeLimit(60);
+			solverFacade.setUseInitialSolution(false);
+			statistics.setAbstractionRuntime(statistics.getAbstractionRuntime() + elapsed);
+			statistics.setFixedAbstractionRuntime(elapsed);
+			if (propagationThreads > 1)
+				propagationExecutor = Executors.newFixedThreadPool(propagationThreads);
+			try {
+				regioCentralSteps(graphExporter);
+			} finally {
+				if (propagationExecutor != null) {
+					propagationExecutor.shutdown();
+					propagationExecutor = null;
+				}
+			}
+		} finally {
+			if (holeDetection != null) {
+				holeDetection.shutdown();
+				holeDetection = null;
+			}
+		}
+	}
+
+	/**
+	 * The shared fork/join engine if hole detection threads are set, otherwise a new sequential one per abstraction
+	 */
+	private HoleDetection getHoleDetection() {
+		return holeDetection != null ? holeDetection : new HoleDetection();
+	}
+
+	private void regioCentralSteps(CplexAvppGraphExporter graphExporter) {
+		long elapsed;
 		// solve model by creating decentralized models using avpps
 		for (int t = 0; t < experimentHorizon - timeHorizon; ++t) {
 			// update states from concrete power plants
@@ -425,19 +735,22 @@ public class Experiment {
 			timer.tick(TimerCategory.RUNTIME_REGIOCENTRAL_TS.id);
 			// perform temporal abstraction with current state
 			timer.tick(TimerCategory.ABSTRACTION_RUNTIME.id);
-			performTemporalAbstraction(graph);
+			Double[] residualLoadPiece = getResidualLoad(residualLoad, t, timeHorizon);
+			if (t == 0 && isBatched())
+				useBatchedTemporalAbstraction(residualLoadPiece);
+			else
+				performTemporalAbstraction(graph, residualLoadPiece);
 			elapsed = timer.tock(TimerCategory.ABSTRACTION_RUNTIME.id);
 			statistics.setAbstractionRuntime(statistics.getAbstractionRuntime() + elapsed);
 			statistics.addVariableAbstractionTime(elapsed);
 
-			Double[] residualLoadPiece = getResidualLoad(residualLoad, t, timeHorizon);
 			// calls recursive solving algorithm
 			solveRecursively(graph, graphExporter, t, residualLoadPiece, 0);
 
 			// get aggregated production and report it
 			double totalProduction = 0.0;
-			for (PowerPlantState state : concretePlantStates.values()) {
-				totalProduction += state.getPower().min;
+			for (int id : concretePlantIds) {
+				totalProduction += states.getPowerMin(id);
 			}
 			long elapsedStep = timer.tock(TimerCategory.RUNTIME_REGIOCENTRAL_TS.id);
 			statistics.addRegioCentralRuntimePerStep(elapsedStep);
@@ -459,7 +772,7 @@ public class Experiment {
 		timer.tick(TimerCategory.AVPP_TIME.id);
 		loadInputs.put(node.getPowerPlant().getName(), residualLoadPerNode[0]);
 
-		Map<String, PowerPlantState> localStates = getStates(node, allStates);
+		int[] localIds = getStateIds(node);
 
 		// print top level model
 		String modelFile = "generated/" + node.getPowerPlant().getName() + ".mod";
@@ -476,7 +789,7 @@ public class Experiment {
 				node.getGeneralAbstraction().getFeasibleRegions());
 		String residualLoadStr = graphExporter.getExporter().createResidualLoad(residualLoadPerNode);
 
-		String initState = graphExporter.getExporter().createInitStateData(localStates);
+		String initState = graphExporter.getExporter().createInitStateData(states, localIds);
 
 		String dataFile = "generated/" + node.getPowerPlant().getName() + "_" + t + ".dat";
 		String dataContent = generalAbstractionData + "\n" + temporalAbstractionData + "\n" + residualLoadStr + "\n" + piecewiseData + "\n" + initState + "\n"
@@ -494,14 +807,14 @@ public class Experiment {
 			if (!solverFacade.isSolved())
 				throw new RuntimeException("Model " + modelFile + " / " + dataFile + " could not be solved!");
 		}
-		for (Entry<String, PowerPlantState> state : localStates.entrySet()) {
-			double power = solverFacade.getProduction(state.getKey(), 1);
+		for (int id : localIds) {
+			double power = solverFacade.getProduction(states.getName(id), 1);
 			if (power < jitter)
 				power = 0;
-			boolean running = solverFacade.getRunning(state.getKey(), 1);
+			boolean running = solverFacade.getRunning(states.getName(id), 1);
 
-			state.getValue().setPower(new Interval<Double>(power));
-			state.getValue().setRunning(new Interval<Boolean>(running));
+			states.setPower(id, power, power);
+			states.setRunning(id, running, running);
 		}
 
 		// get total production for comparison with input
@@ -543,13 +856,13 @@ public class Experiment {
 
 	}
 
-	private Map<String, PowerPlantState> getStates(AvppGraph node, Map<String, PowerPlantState> allStates2) {
-		Map<String, PowerPlantState> localStates = new HashMap<String, PowerPlantState>(node.getChildren().size() * 2);
-
+	private int[] getStateIds(AvppGraph node) {
+		int[] localIds = new int[node.getChildren().size()];
+		int i = 0;
 		for (AvppGraph child : node.getChildren()) {
-			localStates.put(child.getPowerPlant().getName(), allStates2.get(child.getPowerPlant().getName()));
+			localIds[i++] = states.getId(child.getPowerPlant().getName());
 		}
-		return localStates;
+		return localIds;
 	}
 
 	private Double[] getResidualLoad(Double[] residualLoadParam, int t, int timeHorizon) {
@@ -578,7 +891,7 @@ public class Experiment {
 		for (int t = 0; t < experimentHorizon - timeHorizon; ++t) {
 			timer.tick(TimerCategory.RUNTIME_CENTRAL_TS.id);
 			// create new .dat file with the current states
-			String initState = exporter.createInitStateData(concretePlantStates);
+			String initState = exporter.createInitStateData(states, concretePlantIds);
 			Double[] residualLoadPiece = getResidualLoad(residualLoad, t, timeHorizon);
 			String residualLoadStr = "\n" + exporter.createResidualLoad(residualLoadPiece);
 			String dataFile = "generated/central_state" + t + ".mod";
@@ -589,14 +902,14 @@ public class Experiment {
 			solverFacade.solve(modelFile, dataFile);
 			// extract values for t=1 to be the next init
 			if (solverFacade.isSolved()) {
-				for (Entry<String, PowerPlantState> state : concretePlantStates.entrySet()) {
-					double power = solverFacade.getProduction(state.getKey(), 1);
-					boolean running = solverFacade.getRunning(state.getKey(), 1);
+				for (int id : concretePlantIds) {
+					double power = solverFacade.getProduction(states.getName(id), 1);
+					boolean running = solverFacade.getRunning(states.getName(id), 1);
 
 					if (power < jitter)
 						power = 0;
-					state.getValue().setPower(new Interval<Double>(power));
-					state.getValue().setRunning(new Interval<Boolean>(running));
+					states.setPower(id, power, power);
+					states.setRunning(id, running, running);
 				}
 				statistics.reportUnsolvedAllocation(0.0);
 			} // else everything stays the same
@@ -604,7 +917,7 @@ public class Experiment {
 				statistics.reportUnsolvedAllocation(1.0);
 			}
 			// store quantities of interest (cost, violation ...) for evaluation
-			double totalProduction = getTotalProduction(concretePlantStates);
+			double totalProduction = getTotalProduction(concretePlantIds);
 			long elapsed = timer.tock(TimerCategory.RUNTIME_CENTRAL_TS.id);
 			statistics.addCentralRuntimePerStep(elapsed);
 			bookmark(t, residualLoad[t], totalProduction);
@@ -613,21 +926,22 @@ public class Experiment {
 	}
 
 	private void extractConcretePlants() {
-		concretePlantStates = new HashMap<String, PowerPlantState>(allStates.size());
-		for (Entry<String, PowerPlantState> state : allStates.entrySet())
-			if (!state.getValue().getData().isAVPP())
-				concretePlantStates.put(state.getKey(), state.getValue());
-
+		int count = 0;
+		int[] ids = new int[states.size()];
+		for (int id = 0; id < states.size(); ++id)
+			if (!states.getData(id).isAVPP())
+				ids[count++] = id;
+		concretePlantIds = Arrays.copyOf(ids, count);
 	}
 
 	private void bookmark(int t, Double residualLoad, double totalProduction) {
 		bookmarkBuilder.append(t + ";" + residualLoad + ";" + totalProduction + "\n");
 	}
 
-	private double getTotalProduction(Map<String, PowerPlantState> concretePlantStates2) {
+	private double getTotalProduction(int[] plantIds) {
 		double production = 0.0;
-		for (PowerPlantState state : concretePlantStates2.values()) {
-			production += state.getPower().min;
+		for (int id : plantIds) {
+			production += states.getPowerMin(id);
 		}
 		return production;
 	}
@@ -700,6 +1014,206 @@ public class Experiment {
 		this.useIsoSplit = useIsoSplit;
 	}
 
+	public boolean isTemporalSumTree() {
+		return temporalSumTree;
+	}
+
+	/**
+	 * Keeps the children of each temporal abstraction in a segment tree across time steps instead of summing them with
+	 * the hole detection engine in every step
+	 * 
+	 * @param temporalSumTree
+	 */
+	public void setTemporalSumTree(boolean temporalSumTree) {
+		this.temporalSumTree = temporalSumTree;
+	}
+
+	public int getHoleDetectionThreads() {
+		return holeDetectionThreads;
+	}
+
+	/**
+	 * Number of fork/join threads summing the children in general and temporal abstraction, 0 or 1 sums sequentially
+	 * 
+	 * @param holeDetectionThreads
+	 */
+	public void setHoleDetectionThreads(int holeDetectionThreads) {
+		this.holeDetectionThreads = holeDetectionThreads;
+	}
+
+	public double getResolution() {
+		return resolution;
+	}
+
+	/**
+	 * Quantizes feasible regions to multiples of the given power (e.g. 0.01 for 10 kW) during abstraction; 0 keeps
+	 * plain doubles
+	 * 
+	 * @param resolution
+	 */
+	public void setResolution(double resolution) {
+		this.resolution = resolution;
+	}
+
+	public int getMaxRegions() {
+		return maxRegions;
+	}
+
+	/**
+	 * Keeps at most this many feasible regions per AVPP by closing the smallest holes; 0 keeps all
+	 * 
+	 * @param maxRegions
+	 */
+	public void setMaxRegions(int maxRegions) {
+		this.maxRegions = maxRegions;
+	}
+
+	public double getCompactionBudget() {
+		return compactionBudget;
+	}
+
+	public void setCompactionBudget(double compactionBudget) {
+		this.compactionBudget = compactionBudget;
+	}
+
+	public RegionCache getRegionCache() {
+		return regionCache;
+	}
+
+	/**
+	 * Caches feasible regions of AVPPs by the configuration of their children, so that repeated runs over the same
+	 * plants skip hole detection
+	 * 
+	 * @param cacheSize
+	 *            maximal number of cached AVPP configurations, 0 turns caching off
+	 */
+	public void setRegionCacheSize(int cacheSize) {
+		regionCache = cacheSize > 0 ? new RegionCache(cacheSize) : null;
+	}
+
+	public boolean isRollingTemporalAbstraction() {
+		return rollingTemporalAbstraction;
+	}
+
+	/**
+	 * Keeps the temporal abstraction of each AVPP across simulation steps and only recomputes plants whose state
+	 * deviated from the prediction
+	 * 
+	 * @param rollingTemporalAbstraction
+	 */
+	public void setRollingTemporalAbstraction(boolean rollingTemporalAbstraction) {
+		this.rollingTemporalAbstraction = rollingTemporalAbstraction;
+	}
+
+	public boolean isExactStopTimes() {
+		return exactStopTimes;
+	}
+
+	/**
+	 * Tracks the distinct on/off states of plants with stop times in the temporal abstraction for tighter bounds
+	 * 
+	 * @param exactStopTimes
+	 */
+	public void setExactStopTimes(boolean exactStopTimes) {
+		this.exactStopTimes = exactStopTimes;
+	}
+
+	public double getLoadEnvelopeMargin() {
+		return loadEnvelopeMargin;
+	}
+
+	/**
+	 * Prunes the temporal abstraction of each AVPP to the production that the residual load, widened by this margin,
+	 * can ask for; negative values turn pruning off
+	 * 
+	 * @param loadEnvelopeMargin
+	 */
+	public void setLoadEnvelopeMargin(double loadEnvelopeMargin) {
+		this.loadEnvelopeMargin = loadEnvelopeMargin;
+	}
+
+	public int getPropagationThreads() {
+		return propagationThreads;
+	}
+
+	/**
+	 * Number of threads propagating plant states concurrently in the temporal abstraction, 0 or 1 propagates
+	 * sequentially
+	 * 
+	 * @param propagationThreads
+	 */
+	public void setPropagationThreads(int propagationThreads) {
+		this.propagationThreads = propagationThreads;
+	}
+
+	public int getSamplingThreads() {
+		return samplingThreads;
+	}
+
+	/**
+	 * Number of threads solving the sample points of the sampling abstraction concurrently, each with its own solver;
+	 * 0 or 1 samples sequentially
+	 * 
+	 * @param samplingThreads
+	 */
+	public void setSamplingThreads(int samplingThreads) {
+		this.samplingThreads = samplingThreads;
+	}
+
+	public double getAdaptiveSamplingTolerance() {
+		return adaptiveSamplingTolerance;
+	}
+
+	/**
+	 * Samples the delta functions adaptively if greater 0, refining only segments whose midpoint deviates from the
+	 * linear interpolation by more than this; samplingPoints then bounds the solves per function
+	 * 
+	 * @param adaptiveSamplingTolerance
+	 */
+	public void setAdaptiveSamplingTolerance(double adaptiveSamplingTolerance) {
+		this.adaptiveSamplingTolerance = adaptiveSamplingTolerance;
+	}
+
+	public boolean isWarmStartSampling() {
+		return warmStartSampling;
+	}
+
+	/**
+	 * Starts each solve of the sampling abstraction from the solution of the previous sample point, off by default
+	 * 
+	 * @param warmStartSampling
+	 */
+	public void setWarmStartSampling(boolean warmStartSampling) {
+		this.warmStartSampling = warmStartSampling;
+	}
+
+	public boolean isParametricSampling() {
+		return parametricSampling;
+	}
+
+	/**
+	 * Generates each sampling model once per criterion and only changes the input bounds between sample points
+	 * 
+	 * @param parametricSampling
+	 */
+	public void setParametricSampling(boolean parametricSampling) {
+		this.parametricSampling = parametricSampling;
+	}
+
+	public boolean isMonotoneSampling() {
+		return monotoneSampling;
+	}
+
+	/**
+	 * Treats the successor power as monotonic in the current power, so sample points between equal outputs are
+	 * interpolated instead of solved
+	 * 
+	 * @param monotoneSampling
+	 */
+	public void setMonotoneSampling(boolean monotoneSampling) {
+		this.monotoneSampling = monotoneSampling;
+	}
+
 	public long getHierarchyRandomSeed() {
 		return HierarchyRandomSeed;
 	}
@@ -724,6 +1238,33 @@ public class Experiment {
 		InitialStatesSeed = initialStatesSeed;
 	}
 
+	private boolean isBatched() {
+		if (batchInitialStatesSeeds == null)
+			return false;
+		for (long seed : batchInitialStatesSeeds) {
+			if (seed == InitialStatesSeed)
+				return true;
+		}
+		return false;
+	}
+
+	public long[] getBatchInitialStatesSeeds() {
+		return batchInitialStatesSeeds;
+	}
+
+	/**
+	 * Initial states seeds of runs on the same hierarchy and AVPPs: the first temporal abstraction of the run with one of
+	 * them is computed for all of them at once and reused by the others. Results equal those of single runs. Null turns
+	 * batching off.
+	 * 
+	 * @param batchInitialStatesSeeds
+	 */
+	public void setBatchInitialStatesSeeds(long[] batchInitialStatesSeeds) {
+		if (!Arrays.equals(this.batchInitialStatesSeeds, batchInitialStatesSeeds))
+			batchedSequences = null;
+		this.batchInitialStatesSeeds = batchInitialStatesSeeds;
+	}
+
 	public int getAvppsPerAvpp() {
 		return avppsPerAvpp;
 	}
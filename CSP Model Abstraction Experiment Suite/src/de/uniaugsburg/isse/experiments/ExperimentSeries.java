@@ -1,6 +1,7 @@
 package de.uniaugsburg.isse.experiments;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Date;
 
 import de.uniaugsburg.isse.util.Utils;
@@ -58,6 +59,7 @@ public class ExperimentSeries {
 			experiment.setInitialStatesSeed(initialStatesSeeds[i]);
 			experiment.setAvppsRandomSeed(avppsRandomSeeds[i]);
 			experiment.setHierarchyRandomSeed(hierarchyRandomSeed[i]);
+			experiment.setBatchInitialStatesSeeds(getBatchSeeds(i));
 			experiment.run();
 		}
 		
@@ -66,5 +68,19 @@ public class ExperimentSeries {
 		File csvFile = new File("results/statscsv"+timestamp+".csv");
 		Utils.writeFile(csvFile.getAbsolutePath(), csvContent);
 	}
+
+	/**
+	 * Initial states seeds of all runs on the same hierarchy as run i,
+	 * null if it is the only one
+	 */
+	private long[] getBatchSeeds(int i) {
+		int count = 0;
+		long[] seeds = new long[initialStatesSeeds.length];
+		for (int j = 0; j < initialStatesSeeds.length; ++j) {
+			if (hierarchyRandomSeed[j] == hierarchyRandomSeed[i] && avppsRandomSeeds[j] == avppsRandomSeeds[i])
+				seeds[count++] = initialStatesSeeds[j];
+		}
+		return count > 1 ? Arrays.copyOf(seeds, count) : null;
+	}
 	
 }
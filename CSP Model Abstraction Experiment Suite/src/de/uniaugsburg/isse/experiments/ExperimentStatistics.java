@@ -80,6 +80,13 @@ public class ExperimentStatistics {
 	}
 
 	private long longestSerialPath;
+	private int peakHoleDetectionSize;
+	private double admittedPower; // by compaction of feasible regions
+	private long savedHoleConstraints;
+	private long regionCacheHits; // cumulative over all runs
+	private long regionCacheMisses;
+	private long prunedIntervals; // by the residual load envelope
+	private long recomputedPlants; // in temporal abstraction, all plants per step unless rolling
 	private MovingAverage abstractionError;
 	private MovingAverage topLevelViolationAbstracted;
 	private MovingAverage topLevelViolationActualCentral;
@@ -188,6 +195,56 @@ public class ExperimentStatistics {
 		longestSerialPath = Math.max(l, longestSerialPath);
 	}
 
+	public int getPeakHoleDetectionSize() {
+		return peakHoleDetectionSize;
+	}
+
+	public void reportHoleDetectionSize(int size) {
+		peakHoleDetectionSize = Math.max(size, peakHoleDetectionSize);
+	}
+
+	public double getAdmittedPower() {
+		return admittedPower;
+	}
+
+	public long getSavedHoleConstraints() {
+		return savedHoleConstraints;
+	}
+
+	public long getRegionCacheHits() {
+		return regionCacheHits;
+	}
+
+	public long getRegionCacheMisses() {
+		return regionCacheMisses;
+	}
+
+	public void reportRegionCache(long hits, long misses) {
+		regionCacheHits = hits;
+		regionCacheMisses = misses;
+	}
+
+	public long getPrunedIntervals() {
+		return prunedIntervals;
+	}
+
+	public void reportPrunedIntervals(int pruned) {
+		prunedIntervals += pruned;
+	}
+
+	public long getRecomputedPlants() {
+		return recomputedPlants;
+	}
+
+	public void reportRecomputedPlants(int recomputed) {
+		recomputedPlants += recomputed;
+	}
+
+	public void reportCompaction(double admitted, int savedHoles) {
+		admittedPower += admitted;
+		savedHoleConstraints += savedHoles;
+	}
+
 	public void reportUnsolvedAllocation(double runSucces) {
 		unsolvedAllocations.add(runSucces);
 	}
@@ -271,6 +328,12 @@ public class ExperimentStatistics {
 		sb.append("+ Longest serial path : " + toSeconds(longestSerialPath)
 				+ "\n");
 		appendMovingAverage(sb, "Time per AVPP solving", runtimePerAvppPerStep);
+		sb.append("+ Peak intermediate regions in hole detection : " + peakHoleDetectionSize + "\n");
+		sb.append("+ Compaction admitted power : " + admittedPower + "\n");
+		sb.append("+ Compaction saved hole constraints per time step : " + savedHoleConstraints + "\n");
+		sb.append("+ Region cache hits / misses : " + regionCacheHits + " / " + regionCacheMisses + "\n");
+		sb.append("+ Temporal intervals pruned by load envelope : " + prunedIntervals + "\n");
+		sb.append("+ Plants recomputed in temporal abstraction : " + recomputedPlants + "\n");
 		sb.append("+ Time spent in abstraction: "
 				+ toSeconds(abstractionRuntime) + "\n");
 		sb.append("+ Fixed time abstraction: "+toSeconds(fixedAbstractionRuntime)+"\n");
@@ -0,0 +1,359 @@
+package de.uniaugsburg.isse.abstraction;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import de.uniaugsburg.isse.abstraction.types.IntervalSet;
+import de.uniaugsburg.isse.constraints.BoundsConstraint;
+import de.uniaugsburg.isse.constraints.Constraint;
+import de.uniaugsburg.isse.constraints.FixedChangeConstraint;
+import de.uniaugsburg.isse.constraints.ForceOnConstraint;
+import de.uniaugsburg.isse.constraints.GraduallyOffConstraint;
+import de.uniaugsburg.isse.constraints.RateOfChangeConstraint;
+import de.uniaugsburg.isse.constraints.StartWithMinConstraint;
+import de.uniaugsburg.isse.constraints.StopTimeConstraint;
+import de.uniaugsburg.isse.powerplants.PlantStateTable;
+import de.uniaugsburg.isse.powerplants.PowerPlantState;
+
+/**
+ * Compiled form of the hard constraints of many plants for temporal
+ * abstraction. Each plant's constraint list is turned into a record of
+ * coefficients, and states are kept in a PlantStateTable, so that one step
+ * of bound propagation is a loop over primitive arrays without virtual calls
+ * or boxed intervals. Results are the same as evaluating the constraints one
+ * by one.
+ *
+ * Only plants with at most one constraint of each known kind compile, see
+ * isCompilable; all others have to be propagated through their constraints.
+ *
+ * Several initial state vectors (lanes) of the same plants can be propagated
+ * together; each plant's coefficients are then loaded once per step for all
+ * lanes.
+ *
+ */
+public final class ConstraintKernel {
+	private static final double NO_LOWER_BOUND = -(Double.MAX_VALUE - 1);
+	private static final double NO_UPPER_BOUND = Double.MAX_VALUE;
+
+	private final int size;
+	private final int lanes;
+	private final int[] positions; // of each plant in the output
+	private final double delta;
+
+	// coefficients
+	private final double[] boundMin;
+	private final double[] boundMax;
+	private final double[] minPower; // power boundaries of the plant
+	private final boolean[] hasRate;
+	private final double[] rateUp;
+	private final double[] rateDown;
+	private final boolean[] hasFixed;
+	private final double[] fixedChange;
+	private final boolean[] hasGraduallyOff;
+	private final double[] graduallyOffFactor;
+	private final double[] graduallyOffMin;
+	private final boolean[] hasStopTime;
+	private final int[] minOffTime;
+	private final int[] minOnTime;
+	private final boolean[] forceOn;
+
+	private final PlantStateTable states; // id of plant i in lane l is l * size + i
+
+	// saturated plants repeat their last interval set, indexed by state id
+	private final int[] saturationStep;
+	private final IntervalSet[] frozenSets;
+	private final int[] saturatedPerLane;
+	private int steps;
+
+	/**
+	 * @param states
+	 *            initial states of compilable plants
+	 * @param positions
+	 *            index of each plant in the array passed to step
+	 * @param delta
+	 *            minimal width of an interval when starting up, see
+	 *            TemporalAbstraction
+	 */
+	public ConstraintKernel(List<PowerPlantState> initialStates, int[] positions, double delta) {
+		this(positions, delta, Collections.singletonList(initialStates));
+	}
+
+	/**
+	 * Kernel propagating several lanes at once
+	 *
+	 * @param laneStates
+	 *            initial states of compilable plants per lane, all lanes list
+	 *            the same plants in the same order
+	 * @param positions
+	 *            index of each plant in the arrays passed to step
+	 * @param delta
+	 *            minimal width of an interval when starting up
+	 * @return
+	 */
+	public static ConstraintKernel forLanes(List<? extends List<PowerPlantState>> laneStates, int[] positions,
+			double delta) {
+		return new ConstraintKernel(positions, delta, laneStates);
+	}
+
+	private ConstraintKernel(int[] positions, double delta, List<? extends List<PowerPlantState>> laneStates) {
+		this.lanes = laneStates.size();
+		this.size = lanes == 0 ? 0 : laneStates.get(0).size();
+		this.positions = positions;
+		this.delta = delta;
+
+		boundMin = new double[size];
+		boundMax = new double[size];
+		minPower = new double[size];
+		hasRate = new boolean[size];
+		rateUp = new double[size];
+		rateDown = new double[size];
+		hasFixed = new boolean[size];
+		fixedChange = new double[size];
+		hasGraduallyOff = new boolean[size];
+		graduallyOffFactor = new double[size];
+		graduallyOffMin = new double[size];
+		hasStopTime = new boolean[size];
+		minOffTime = new int[size];
+		minOnTime = new int[size];
+		forceOn = new boolean[size];
+
+		this.states = new PlantStateTable(size * lanes);
+		saturationStep = new int[size * lanes];
+		Arrays.fill(saturationStep, -1);
+		frozenSets = new IntervalSet[size * lanes];
+		saturatedPerLane = new int[lanes];
+
+		for (int lane = 0; lane < lanes; ++lane) {
+			List<PowerPlantState> initialStates = laneStates.get(lane);
+			if (initialStates.size() != size)
+				throw new IllegalArgumentException("Lane " + lane + " has " + initialStates.size() + " instead of "
+						+ size + " plants");
+			for (int i = 0; i < size; ++i) {
+				PowerPlantState state = initialStates.get(i);
+				if (!isCompilable(state))
+					throw new IllegalArgumentException("Constraints of " + state.getName() + " cannot be compiled");
+				if (lane == 0)
+					compile(i, state);
+				else if (state.getData() != laneStates.get(0).get(i).getData())
+					throw new IllegalArgumentException("Lane " + lane + " lists " + state.getName() + " at " + i);
+				states.add(null, state.getData(), state);
+			}
+		}
+	}
+
+	/**
+	 * A plant compiles if its state is complete and it has at most one hard
+	 * constraint of each of the known classes (subclasses may override the
+	 * evaluation and are not recognized)
+	 *
+	 * @param state
+	 * @return
+	 */
+	public static boolean isCompilable(PowerPlantState state) {
+		if (state.getPower() == null || state.isRunning() == null || state.getConsRunning() == null
+				|| state.getConsStopping() == null || state.getData().getAssociatedConstraints() == null)
+			return false;
+		int bounds = 0, rate = 0, fixed = 0, graduallyOff = 0, stopTime = 0;
+		for (Constraint c : state.getData().getAssociatedConstraints()) {
+			if (c.isSoft())
+				continue;
+			Class<?> type = c.getClass();
+			if (type == BoundsConstraint.class)
+				++bounds;
+			else if (type == RateOfChangeConstraint.class)
+				++rate;
+			else if (type == FixedChangeConstraint.class)
+				++fixed;
+			else if (type == GraduallyOffConstraint.class)
+				++graduallyOff;
+			else if (type == StopTimeConstraint.class)
+				++stopTime;
+			else if (type != ForceOnConstraint.class && type != StartWithMinConstraint.class)
+				return false;
+		}
+		return bounds <= 1 && rate <= 1 && fixed <= 1 && graduallyOff <= 1 && stopTime <= 1;
+	}
+
+	private void compile(int i, PowerPlantState state) {
+		boundMin[i] = NO_LOWER_BOUND;
+		boundMax[i] = NO_UPPER_BOUND;
+		minPower[i] = state.getData().getPowerBoundaries().min;
+		for (Constraint c : state.getData().getAssociatedConstraints()) {
+			if (c.isSoft())
+				continue;
+			if (c instanceof BoundsConstraint) {
+				BoundsConstraint bc = (BoundsConstraint) c;
+				boundMin[i] = bc.getBoundaries().min;
+				boundMax[i] = bc.getBoundaries().max;
+			} else if (c instanceof RateOfChangeConstraint) {
+				RateOfChangeConstraint rc = (RateOfChangeConstraint) c;
+				hasRate[i] = true;
+				rateUp[i] = 1.0 + rc.getRateOfChange();
+				rateDown[i] = 1.0 - rc.getRateOfChange();
+			} else if (c instanceof FixedChangeConstraint) {
+				hasFixed[i] = true;
+				fixedChange[i] = ((FixedChangeConstraint) c).getMaxProductionChange();
+			} else if (c instanceof GraduallyOffConstraint) {
+				GraduallyOffConstraint gc = (GraduallyOffConstraint) c;
+				hasGraduallyOff[i] = true;
+				graduallyOffFactor[i] = 1.0 - gc.getRateOfChange();
+				graduallyOffMin[i] = gc.getMinPower();
+			} else if (c instanceof StopTimeConstraint) {
+				StopTimeConstraint sc = (StopTimeConstraint) c;
+				hasStopTime[i] = true;
+				minOffTime[i] = sc.getMinOffTime();
+				minOnTime[i] = sc.getMinOnTime();
+			} else if (c instanceof ForceOnConstraint) {
+				forceOn[i] = true;
+			}
+		}
+
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getLanes() {
+		return lanes;
+	}
+
+	/**
+	 * Current states of the compiled plants, the id of a plant is its index in
+	 * the list passed on construction (plus lane times size for further lanes)
+	 * 
+	 * @return
+	 */
+	public PlantStateTable getStates() {
+		return states;
+	}
+
+	/**
+	 * Step after which the reachable intervals of a plant no longer change
+	 *
+	 * @param i
+	 * @return -1 if the plant is not saturated yet
+	 */
+	public int getSaturationStep(int i) {
+		return getSaturationStep(0, i);
+	}
+
+	public int getSaturationStep(int lane, int i) {
+		return saturationStep[lane * size + i];
+	}
+
+	/**
+	 * Whether all plants are saturated, i.e. further steps repeat the last
+	 * intervals
+	 *
+	 * @return
+	 */
+	public boolean isSaturated() {
+		for (int lane = 0; lane < lanes; ++lane) {
+			if (!isSaturated(lane))
+				return false;
+		}
+		return true;
+	}
+
+	public boolean isSaturated(int lane) {
+		return saturatedPerLane[lane] == size;
+	}
+
+	/**
+	 * Advances all plants by one step and stores their reachable intervals at
+	 * their positions
+	 *
+	 * @param plantSets
+	 */
+	public void step(IntervalSet[] plantSets) {
+		if (lanes != 1)
+			throw new IllegalStateException("Kernel has " + lanes + " lanes");
+		step(new IntervalSet[][] { plantSets });
+	}
+
+	/**
+	 * Advances all plants of all lanes by one step
+	 *
+	 * @param laneSets
+	 *            receives the reachable intervals of each lane at the plants'
+	 *            positions
+	 */
+	public void step(IntervalSet[][] laneSets) {
+		++steps;
+		for (int i = 0; i < size; ++i) {
+			for (int lane = 0, id = i; lane < lanes; ++lane, id += size)
+				laneSets[lane][positions[i]] = advance(i, id, lane);
+		}
+	}
+
+	/**
+	 * One step of plant i in the given lane, id is its state
+	 */
+	private IntervalSet advance(int i, int id, int lane) {
+		if (saturationStep[id] >= 0)
+			return frozenSets[id];
+		double pMin = states.getPowerMin(id), pMax = states.getPowerMax(id);
+		boolean wasOnMin = states.isRunningMin(id), wasOnMax = states.isRunningMax(id);
+
+		double nextMin = boundMin[i];
+		double nextMax = boundMax[i];
+		if (hasRate[i]) {
+			nextMax = Math.min(rateUp[i] * pMax, nextMax);
+			nextMin = Math.max(rateDown[i] * pMin, nextMin);
+		}
+		if (hasFixed[i]) {
+			nextMax = Math.min(fixedChange[i] + pMax, nextMax);
+			nextMin = Math.max(pMin - fixedChange[i], nextMin);
+		}
+
+		boolean onMin = forceOn[i];
+		boolean onMax = true;
+		if (hasGraduallyOff[i])
+			onMin = onMin || graduallyOffFactor[i] * pMin > graduallyOffMin[i];
+		if (hasStopTime[i]) {
+			onMax = states.isRunningMax(id) || states.getConsStoppingMax(id) - minOffTime[i] >= 0;
+			onMin = onMin || (states.isRunningMin(id) && !(states.getConsRunningMin(id) - minOnTime[i] >= 0));
+		}
+
+		states.updateRunning(id, onMin, onMax);
+
+		if (!onMin)
+			nextMin = 0.0;
+		if (onMax)
+			nextMax = Math.max(nextMax, minPower[i]);
+		states.setPower(id, nextMin, nextMax);
+
+		double addMin = Math.max(nextMin, minPower[i]);
+		double addMax = Math.max(nextMax, minPower[i] + delta);
+		IntervalSet plantSet;
+		if (!onMax && !onMin)
+			plantSet = IntervalSet.point(0.0);
+		else if (onMax && onMin)
+			plantSet = IntervalSet.of(addMin, addMax);
+		else
+			plantSet = IntervalSet.fromBounds(new double[] { 0.0, 0.0, addMin, addMax });
+
+		if (nextMin == pMin && nextMax == pMax && onMin == wasOnMin && onMax == wasOnMax && stopTimeSettled(i, id)) {
+			// fixed point: the next step sees the same state
+			saturationStep[id] = steps;
+			frozenSets[id] = plantSet;
+			++saturatedPerLane[lane];
+		}
+		return plantSet;
+	}
+
+	/**
+	 * Whether a stop time constraint evaluates as in the last step for all
+	 * following ones; its counters keep growing otherwise
+	 */
+	private boolean stopTimeSettled(int i, int id) {
+		if (!hasStopTime[i])
+			return true;
+		// may not switch on any more, or minimal run time was already reached
+		// when the last step was evaluated
+		return states.isRunningMax(id)
+				&& (!states.isRunningMin(id) || states.getConsRunningMin(id) - 1 - minOnTime[i] >= 0);
+	}
+}
@@ -3,6 +3,7 @@ package de.uniaugsburg.isse.abstraction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -11,6 +12,8 @@ import java.util.Map.Entry;
 import java.util.SortedSet;
 
 import de.uniaugsburg.isse.abstraction.types.Interval;
+import de.uniaugsburg.isse.abstraction.types.IntervalSet;
+import de.uniaugsburg.isse.abstraction.types.RegionSequence;
 import de.uniaugsburg.isse.constraints.BoundsConstraint;
 import de.uniaugsburg.isse.constraints.Constraint;
 import de.uniaugsburg.isse.constraints.FixedChangeConstraint;
@@ -19,6 +22,7 @@ import de.uniaugsburg.isse.constraints.GraduallyOffConstraint;
 import de.uniaugsburg.isse.constraints.RateOfChangeConstraint;
 import de.uniaugsburg.isse.constraints.StartWithMinConstraint;
 import de.uniaugsburg.isse.constraints.StopTimeConstraint;
+import de.uniaugsburg.isse.powerplants.PlantStateTable;
 import de.uniaugsburg.isse.powerplants.PowerPlantData;
 import de.uniaugsburg.isse.powerplants.PowerPlantState;
 import de.uniaugsburg.isse.util.AbstractionParameterLiterals;
@@ -59,6 +63,13 @@ public class CplexExporter {
 										// start at 1 or 0
 	private boolean useCosts;
 	private boolean useSoftConstraints; // includes a decision expression for penalties as well as soft-CR formulations
+
+	/**
+	 * Temporal abstraction data last written per AVPP, consecutive simulation steps mostly repeat the regions of the
+	 * previous one shifted by one step
+	 */
+	private Map<String, TemporalExport> temporalExports = new HashMap<String, TemporalExport>();
+	private int formattedSteps;
 	
 	// use 1 for load assignment problem as transition from t=0 to t=1 is
 	// correctly done by temporal abstraction
@@ -229,6 +240,33 @@ public class CplexExporter {
 		constraints.add(constraint);
 	}
 
+	/**
+	 * Bounds a decision expression by a named range constraint instead, whose bounds can be changed in the generated
+	 * model; infinite bounds are written as such
+	 * 
+	 * @param name
+	 * @param decExpr
+	 * @param lower
+	 * @param upper
+	 */
+	public void addRangeConstraint(String name, String decExpr, double lower, double upper) {
+		constraints.add(name + ": " + formatBound(lower) + " <= " + decExpr + " <= " + formatBound(upper) + ";");
+	}
+
+	private static String formatBound(double bound) {
+		if (Double.isInfinite(bound))
+			return bound > 0 ? "infinity" : "-infinity";
+		return Double.toString(bound);
+	}
+
+	public void clearConstraints() {
+		constraints.clear();
+	}
+
+	public double getNumericalEps() {
+		return numericalEps;
+	}
+
 	protected Collection<String> getAvpps(Collection<PowerPlantData> plants) {
 		Collection<String> avpps = new ArrayList<String>(plants.size());
 		for (PowerPlantData pd : plants) {
@@ -454,6 +492,8 @@ public class CplexExporter {
 	}
 
 	public void setTimeHorizon(int timeHorizon) {
+		if (timeHorizon != this.timeHorizon)
+			resetTemporalExports(); // padded to the old horizon
 		this.timeHorizon = timeHorizon;
 	}
 
@@ -546,6 +586,26 @@ public class CplexExporter {
 		return sb.toString();
 	}
 
+	/**
+	 * Same as createInitStateData for the given plants of a state table
+	 * 
+	 * @param states
+	 * @param ids
+	 * @return
+	 */
+	public String createInitStateData(PlantStateTable states, int[] ids) {
+		StringBuilder sb = new StringBuilder("initialData = #[\n");
+		for (int i = 0; i < ids.length; ++i) {
+			if (i > 0)
+				sb.append(",\n");
+			double power = states.getPowerMin(ids[i]);
+			sb.append("\"" + states.getName(ids[i]) + "\" : #< pInit : " + power + ",\n");
+			sb.append("runningInit: " + (power > 0 ? "1" : "0") + ">#");
+		}
+		sb.append("]#;\n");
+		return sb.toString();
+	}
+
 	public String createResidualLoad(Double[] residualLoadParam) {
 		String export = "energyConsumption = " + exportLoads(residualLoadParam) + ";\n";
 		return export;
@@ -756,14 +816,140 @@ public class CplexExporter {
 
 		/* =========== now general bounds =============== */
 		if (anyAvpp(children)) {
-			Map<String, List<Collection<Interval<Double>>>> holesMap = getAllHolesMap(children);
-			sb.append(writeIntervalSetsList("temporalHoles", holesMap));
+			// same maps as getAllHolesMap and getAllRegionsMap to keep the order of entries
+			Map<String, String> holesEntries = new HashMap<String, String>();
+			Map<String, String> boundsEntries = new HashMap<String, String>(children.size() * 2);
+			Map<String, List<Collection<Interval<Double>>>> holesMap = null;
+			Map<String, List<Collection<Interval<Double>>>> regionsMap = null;
+
+			for (PowerPlantData child : children) {
+				if (!child.isAVPP())
+					continue;
+				TemporalExport export = getTemporalExport(child);
+				if (export != null) {
+					holesEntries.put(child.getName(), export.holes);
+					if (export.bounds != null)
+						boundsEntries.put(child.getName(), export.bounds);
+				} else {
+					// regions were set as lists only
+					if (holesMap == null) {
+						holesMap = getAllHolesMap(children);
+						regionsMap = getAllRegionsMap(children);
+					}
+					holesEntries.put(child.getName(), getIntervalSetsListEntry(holesMap.get(child.getName())));
+					if (regionsMap.containsKey(child.getName()))
+						boundsEntries.put(child.getName(), getIntervalSetsListEntry(regionsMap.get(child.getName())));
+				}
+			}
+			sb.append(writeEntries("temporalHoles", holesEntries));
+			sb.append(writeEntries("temporalBounds", boundsEntries));
+		}
+		return sb.toString();
 
-			Map<String, List<Collection<Interval<Double>>>> regionsMap = getAllRegionsMap(children);
-			sb.append(writeIntervalSetsList("temporalBounds", regionsMap));
+	}
+
+	/**
+	 * Strings of a region sequence as written to temporalHoles and temporalBounds
+	 */
+	private static final class TemporalExport {
+		RegionSequence regions;
+		int timeHorizon;
+		String holes;
+		String bounds; // null without regions
+		Map<IntervalSet, String[]> steps; // holes and bounds of each distinct step
+	}
+
+	/**
+	 * Reuses the data written for the AVPP before; if its regions changed, only steps that did not occur then are
+	 * formatted
+	 * 
+	 * @param child
+	 * @return null if the regions of the child are not available as a sequence
+	 */
+	private TemporalExport getTemporalExport(PowerPlantData child) {
+		RegionSequence sequence = child.getRegionSequence();
+		// holes set on their own have to match those of the sequence
+		if (sequence == null || !sequence.getHoles().equals(child.getAllHoles()))
+			return null;
+		TemporalExport last = temporalExports.get(child.getName());
+		if (last != null && last.timeHorizon == timeHorizon && last.regions.equals(sequence))
+			return last;
+
+		TemporalExport export = new TemporalExport();
+		export.regions = sequence;
+		export.timeHorizon = timeHorizon;
+		export.steps = new HashMap<IntervalSet, String[]>();
+		Collection<String> holes = new ArrayList<String>(Math.max(timeHorizon, sequence.length()));
+		Collection<String> bounds = new ArrayList<String>(Math.max(timeHorizon, sequence.length()));
+		IntervalSet previous = null;
+		String[] step = null;
+		for (RegionSequence.Cursor cursor = sequence.cursor(); cursor.hasNext();) {
+			IntervalSet regions = cursor.next();
+			if (regions != previous) {
+				step = export.steps.get(regions);
+				if (step == null && last != null)
+					step = last.steps.get(regions);
+				if (step == null) {
+					Interval<Double> avppBounds = new Interval<Double>(regions.getLowerBound(), regions.getUpperBound());
+					step = new String[] { Utils.CplexIntervalSet(regions.holes().toSortedSet()),
+							Utils.CplexIntervalSet(Collections.singletonList(avppBounds)) };
+					++formattedSteps;
+				}
+				export.steps.put(regions, step);
+				previous = regions;
+			}
+			holes.add(step[0]);
+			bounds.add(step[1]);
 		}
+		if (sequence.isEmpty()) {
+			export.holes = "[" + Utils.getEmptySets(timeHorizon) + "]";
+		} else {
+			export.holes = "[" + getPaddedList(holes) + "]";
+			export.bounds = "[" + getPaddedList(bounds) + "]";
+		}
+		temporalExports.put(child.getName(), export);
+		return export;
+	}
+
+	private String getPaddedList(Collection<String> sets) {
+		Collection<String> padded = new ArrayList<String>(sets);
+		while (padded.size() < timeHorizon)
+			padded.add("{}");
+		return Utils.getSeparatedListOfStrings(padded, ", ");
+	}
+
+	private String getIntervalSetsListEntry(List<Collection<Interval<Double>>> intervalList) {
+		if (intervalList.isEmpty())
+			return "[" + Utils.getEmptySets(timeHorizon) + "]";
+		else
+			return "[" + Utils.getPaddedSet(intervalList, timeHorizon) + "]";
+	}
+
+	private String writeEntries(String name, Map<String, String> entries) {
+		StringBuilder sb = new StringBuilder();
+		Collection<String> stringContainer = new ArrayList<String>(entries.size());
+		sb.append(" " + name + " = #[");
+		for (Entry<String, String> entry : entries.entrySet())
+			stringContainer.add(" " + entry.getKey() + " : " + entry.getValue());
+		sb.append(Utils.getSeparatedListOfStrings(stringContainer, ",\n"));
+		sb.append("\n]#;\n");
 		return sb.toString();
+	}
+
+	/**
+	 * @return the number of distinct steps formatted for temporal abstraction data so far, steps taken over from the
+	 *         previous export are not counted
+	 */
+	public int getFormattedSteps() {
+		return formattedSteps;
+	}
 
+	/**
+	 * Forgets the temporal abstraction data written so far, done when the horizon changes or the regional models are
+	 * created again
+	 */
+	public void resetTemporalExports() {
+		temporalExports.clear();
 	}
 
 	public boolean isUseTemporalAbstraction() {
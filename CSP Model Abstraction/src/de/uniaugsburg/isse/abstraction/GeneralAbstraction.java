@@ -1,10 +1,19 @@
 package de.uniaugsburg.isse.abstraction;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
 
 import de.uniaugsburg.isse.abstraction.merging.HoleDetection;
+import de.uniaugsburg.isse.abstraction.merging.MinkowskiSumTree;
+import de.uniaugsburg.isse.abstraction.merging.RegionCache;
 import de.uniaugsburg.isse.abstraction.types.Interval;
+import de.uniaugsburg.isse.abstraction.types.IntervalSet;
+import de.uniaugsburg.isse.abstraction.types.QuantizedIntervalSet;
 import de.uniaugsburg.isse.powerplants.PowerPlantData;
 import de.uniaugsburg.isse.util.PowerPlantUtil;
 
@@ -19,6 +28,22 @@ public class GeneralAbstraction {
 	protected Collection<PowerPlantData> powerPlants;
 	protected SortedSet<Interval<Double>> generalFeasibleRegions;
 	protected Collection<Interval<Double>> generalHoles;
+	protected int peakIntermediateSize;
+	protected int saturationIndex = -1;
+	protected HoleDetection holeDetection;
+	protected RegionCache regionCache;
+
+	// lossy compaction of the feasible regions
+	private int maxRegions; // 0 keeps all regions
+	private double compactionBudget = Double.POSITIVE_INFINITY;
+	protected double admittedPower;
+	protected int savedHoleConstraints;
+
+	// children in a tree of partial sums for incremental updates; once
+	// children were added or removed, indexedPlants replaces powerPlants
+	private List<PowerPlantData> indexedPlants;
+	private Map<PowerPlantData, Integer> slots;
+	private MinkowskiSumTree sumTree;
 
 	public final void perform() {
 		performNew();
@@ -39,12 +64,288 @@ public class GeneralAbstraction {
 	}
 
 	public final void performNew() {
-		HoleDetection hd = new HoleDetection();
-		Collection<Collection<Interval<Double>>> plantIntervals = PowerPlantUtil
-				.extractFromPlants(powerPlants);
+		HoleDetection hd = getHoleDetection();
+		Collection<PowerPlantData> children = getPowerPlants();
+		List<IntervalSet> plantSets = new ArrayList<IntervalSet>(
+				children.size());
+		for (PowerPlantData pd : children) {
+			plantSets.add(PowerPlantUtil.extractIntervalSet(pd));
+		}
+
+		RegionCache.Result cached = null;
+		if (regionCache != null)
+			cached = regionCache.get(plantSets, hd.getResolution());
+		if (cached == null) {
+			hd.detectHoles(plantSets);
+			cached = new RegionCache.Result(hd.getRegions(),
+					hd.getPeakIntermediateSize(), hd.getSaturationIndex());
+			if (regionCache != null)
+				regionCache.put(plantSets, hd.getResolution(), cached);
+		}
+		setRegions(cached.getRegions());
+		peakIntermediateSize = cached.getPeakIntermediateSize();
+		saturationIndex = cached.getSaturationIndex();
+		sumTree = null;
+	}
+
+	/**
+	 * Adds a child plant and updates feasible regions and holes without
+	 * recombining the other children
+	 * 
+	 * @param pd
+	 */
+	public void addPowerPlant(PowerPlantData pd) {
+		ensureSumTree();
+		indexedPlants.add(pd);
+		slots.put(pd, sumTree.add(extract(pd)));
+		updateRegions();
+	}
+
+	/**
+	 * Removes a child plant and updates feasible regions and holes
+	 * 
+	 * @param pd
+	 */
+	public void removePowerPlant(PowerPlantData pd) {
+		ensureSumTree();
+		sumTree.remove(slotOf(pd));
+		slots.remove(pd);
+		for (int i = 0; i < indexedPlants.size(); ++i) {
+			if (indexedPlants.get(i) == pd) {
+				indexedPlants.remove(i);
+				break;
+			}
+		}
+		updateRegions();
+	}
+
+	/**
+	 * To be called after the power boundaries, the on/off capability or the
+	 * feasible regions of a child plant have changed
+	 * 
+	 * @param pd
+	 */
+	public void updatePowerPlant(PowerPlantData pd) {
+		ensureSumTree();
+		sumTree.set(slotOf(pd), extract(pd));
+		updateRegions();
+	}
+
+	/**
+	 * Regions after an incremental update, from the region cache if it holds
+	 * the current children and from the tree otherwise. The tree does not fold
+	 * the children one by one, so the saturation index is unknown then.
+	 */
+	private void updateRegions() {
+		List<IntervalSet> plantSets = null;
+		RegionCache.Result cached = null;
+		if (regionCache != null) {
+			plantSets = new ArrayList<IntervalSet>(indexedPlants.size());
+			for (PowerPlantData pd : indexedPlants)
+				plantSets.add(sumTree.get(slots.get(pd)));
+			cached = regionCache.get(plantSets, getResolution());
+		}
+		if (cached == null) {
+			cached = new RegionCache.Result(total(), sumTree.getPeakSize(), -1);
+			if (regionCache != null)
+				regionCache.put(plantSets, getResolution(), cached);
+		}
+		setRegions(cached.getRegions());
+		peakIntermediateSize = cached.getPeakIntermediateSize();
+		saturationIndex = cached.getSaturationIndex();
+	}
+
+	private int slotOf(PowerPlantData pd) {
+		Integer slot = slots.get(pd);
+		if (slot == null)
+			throw new IllegalArgumentException("Power plant " + pd.getName()
+					+ " is not a child of this abstraction");
+		return slot;
+	}
+
+	private void ensureSumTree() {
+		if (sumTree == null) {
+			if (indexedPlants == null)
+				indexedPlants = new ArrayList<PowerPlantData>(powerPlants);
+			slots = new IdentityHashMap<PowerPlantData, Integer>();
+			List<IntervalSet> plantSets = new ArrayList<IntervalSet>(
+					indexedPlants.size());
+			for (PowerPlantData pd : indexedPlants) {
+				slots.put(pd, plantSets.size());
+				plantSets.add(extract(pd));
+			}
+			sumTree = new MinkowskiSumTree(plantSets);
+		}
+	}
+
+	/**
+	 * Intervals of a child as perform combines them, i.e. rounded to the
+	 * resolution if one is set
+	 */
+	private IntervalSet extract(PowerPlantData pd) {
+		IntervalSet plantSet = PowerPlantUtil.extractIntervalSet(pd);
+		if (getResolution() > 0.0)
+			return QuantizedIntervalSet.quantize(plantSet, getResolution())
+					.toIntervalSet();
+		return plantSet;
+	}
+
+	/**
+	 * Sum of the tree; with a resolution the leaves are multiples of it, so
+	 * rounding the total gives the exact sum of the quantized fold, otherwise
+	 * it is snapped like the sums of hole detection
+	 */
+	private IntervalSet total() {
+		IntervalSet total = sumTree.total();
+		if (getResolution() > 0.0)
+			return QuantizedIntervalSet.quantize(total, getResolution())
+					.toIntervalSet();
+		return HoleDetection.snap(total);
+	}
+
+	private void setRegions(IntervalSet regions) {
+		admittedPower = 0.0;
+		savedHoleConstraints = 0;
+		regions = compact(regions);
+		generalFeasibleRegions = regions.toSortedSet();
+		generalHoles = regions.holes().toSortedSet();
+	}
+
+	/**
+	 * Closes the smallest holes if there are more than maxRegions regions and
+	 * adds the loss to the admitted power and saved hole constraints
+	 * 
+	 * @param regions
+	 * @return
+	 */
+	protected IntervalSet compact(IntervalSet regions) {
+		if (maxRegions <= 0 || regions.size() <= maxRegions)
+			return regions;
+		IntervalSet compacted = regions.closeSmallestHoles(maxRegions,
+				compactionBudget);
+		admittedPower += compacted.getMeasure() - regions.getMeasure();
+		savedHoleConstraints += regions.size() - compacted.size();
+		return compacted;
+	}
+
+	public int getMaxRegions() {
+		return maxRegions;
+	}
+
+	/**
+	 * Lossy compaction: keeps at most maxRegions feasible regions by closing
+	 * the smallest holes first; fewer holes mean fewer productionHoles
+	 * constraints in the parent model. Temporal abstraction compacts every
+	 * step alike, so it has to use the settings of its general regions.
+	 * 
+	 * @param maxRegions
+	 *            0 keeps all regions
+	 */
+	public void setMaxRegions(int maxRegions) {
+		this.maxRegions = maxRegions;
+	}
+
+	public double getCompactionBudget() {
+		return compactionBudget;
+	}
+
+	/**
+	 * Upper bound on the summed width of holes closed by compaction; stops
+	 * compacting before K regions are reached if exceeded
+	 * 
+	 * @param compactionBudget
+	 */
+	public void setCompactionBudget(double compactionBudget) {
+		this.compactionBudget = compactionBudget;
+	}
+
+	/**
+	 * Infeasible power that compaction declared feasible, i.e. the summed
+	 * width of closed holes; summed over all steps for temporal abstraction
+	 * 
+	 * @return
+	 */
+	public double getAdmittedPower() {
+		return admittedPower;
+	}
+
+	/**
+	 * Number of closed holes, each of which saves one productionHoles
+	 * constraint per time step; summed over all steps for temporal
+	 * abstraction
+	 * 
+	 * @return
+	 */
+	public int getSavedHoleConstraints() {
+		return savedHoleConstraints;
+	}
+
+	/**
+	 * Number of plants that had to be combined before the feasible regions
+	 * became contiguous, -1 if they never did or if they were computed
+	 * incrementally
+	 * 
+	 * @return
+	 */
+	public int getSaturationIndex() {
+		return saturationIndex;
+	}
+
+	/**
+	 * Largest number of disjoint regions held while combining the plants, a
+	 * measure for the effort of hole detection
+	 * 
+	 * @return
+	 */
+	public int getPeakIntermediateSize() {
+		return peakIntermediateSize;
+	}
+
+	/**
+	 * Hole detection engine to use, a sequential one is created if none was
+	 * set
+	 * 
+	 * @return
+	 */
+	public HoleDetection getHoleDetection() {
+		if (holeDetection == null)
+			holeDetection = new HoleDetection();
+		return holeDetection;
+	}
+
+	public void setHoleDetection(HoleDetection holeDetection) {
+		this.holeDetection = holeDetection;
+	}
+
+	public RegionCache getRegionCache() {
+		return regionCache;
+	}
+
+	/**
+	 * Reuses the feasible regions of earlier abstractions over children with
+	 * the same configuration; compaction is applied after the lookup. Null
+	 * turns caching off.
+	 * 
+	 * @param regionCache
+	 */
+	public void setRegionCache(RegionCache regionCache) {
+		this.regionCache = regionCache;
+	}
+
+	public double getResolution() {
+		return getHoleDetection().getResolution();
+	}
 
-		generalHoles = hd.detectSupplyHoles(plantIntervals);
-		generalFeasibleRegions = hd.getIntervalList();
+	/**
+	 * Quantizes power values to multiples of resolution so that sums, merges
+	 * and convergence checks in perform are exact, 0 turns quantization off.
+	 * Incremental updates give the same regions as perform.
+	 * 
+	 * @param resolution
+	 */
+	public void setResolution(double resolution) {
+		getHoleDetection().setResolution(resolution);
+		this.sumTree = null;
 	}
 
 	public SortedSet<Interval<Double>> getFeasibleRegions() {
@@ -55,12 +356,22 @@ public class GeneralAbstraction {
 		return generalHoles;
 	}
 
+	/**
+	 * Current children, i.e. those set by setPowerPlants with the ones added
+	 * or removed since; the collection passed in is never changed
+	 * 
+	 * @return
+	 */
 	public Collection<PowerPlantData> getPowerPlants() {
+		if (indexedPlants != null)
+			return Collections.unmodifiableList(indexedPlants);
 		return powerPlants;
 	}
 
 	public void setPowerPlants(Collection<PowerPlantData> powerPlants) {
 		this.powerPlants = powerPlants;
+		this.indexedPlants = null;
+		this.sumTree = null;
 	}
 
 	public void print() {
@@ -0,0 +1,270 @@
+package de.uniaugsburg.isse.abstraction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import de.uniaugsburg.isse.abstraction.types.Interval;
+import de.uniaugsburg.isse.abstraction.types.IntervalSet;
+import de.uniaugsburg.isse.constraints.Constraint;
+import de.uniaugsburg.isse.constraints.StopTimeConstraint;
+import de.uniaugsburg.isse.powerplants.PowerPlantData;
+import de.uniaugsburg.isse.powerplants.PowerPlantState;
+
+/**
+ * Exact on/off bookkeeping of a single plant for temporal abstraction. Instead
+ * of one state with interval counters, as PowerPlantState.updateRunning keeps
+ * it, all distinct discrete states (running, consecutive steps in that mode)
+ * are tracked, each with its own power interval. A plant that is stopped in
+ * one branch therefore does not loosen the power bounds or stop times of the
+ * branch in which it keeps running.
+ *
+ * The set stays small: counters are capped at the plant's minimal on and off
+ * times, since stop time constraints only compare against them; states with
+ * the same counters and overlapping power share one entry whose power
+ * interval is the hull; and a state is dropped if another one in the same
+ * mode has at least its counter and a wider power interval, since it can
+ * reach everything the dropped one can. If more than maxStates remain, all
+ * states with the same counters are merged.
+ *
+ */
+public final class ReachableStateSet {
+
+	/**
+	 * One discrete state, counter is consRunning if running and consStopping
+	 * otherwise
+	 */
+	private static final class State {
+		final boolean running;
+		final int counter;
+		double powerMin, powerMax;
+
+		State(boolean running, int counter, double powerMin, double powerMax) {
+			this.running = running;
+			this.counter = counter;
+			this.powerMin = powerMin;
+			this.powerMax = powerMax;
+		}
+
+		boolean dominates(State other) {
+			return running == other.running && counter >= other.counter && powerMin <= other.powerMin
+					&& powerMax >= other.powerMax;
+		}
+	}
+
+	private final PowerPlantData data;
+	private final double delta;
+	private final int onCap;
+	private final int offCap;
+	private final PowerPlantState probe = new PowerPlantState();
+	private List<State> states = new ArrayList<State>();
+	private int maxStates = 32;
+	private int peakSize;
+
+	/**
+	 * @param initial
+	 *            state of the plant, needs point values, see isApplicable
+	 * @param delta
+	 *            minimal width of an interval when starting up, see
+	 *            TemporalAbstraction
+	 */
+	public ReachableStateSet(PowerPlantState initial, double delta) {
+		if (!isApplicable(initial))
+			throw new IllegalArgumentException("No exact state tracking for " + initial.getName());
+		this.data = initial.getData();
+		this.delta = delta;
+		int minOnTime = 0, minOffTime = 0;
+		for (Constraint c : data.getAssociatedConstraints()) {
+			if (!c.isSoft() && c instanceof StopTimeConstraint) {
+				minOnTime = Math.max(minOnTime, ((StopTimeConstraint) c).getMinOnTime());
+				minOffTime = Math.max(minOffTime, ((StopTimeConstraint) c).getMinOffTime());
+			}
+		}
+		onCap = Math.max(minOnTime, 1);
+		offCap = Math.max(minOffTime, 1);
+
+		boolean running = initial.isRunning().min;
+		int counter = running ? initial.getConsRunning().min : initial.getConsStopping().min;
+		states.add(new State(running, Math.min(counter, running ? onCap : offCap), initial.getPower().min, initial
+				.getPower().max));
+		peakSize = 1;
+		probe.setData(data);
+	}
+
+	/**
+	 * Exact tracking pays off for plants with stop times and needs a state
+	 * without interval counters or an undecided running mode
+	 *
+	 * @param state
+	 * @return
+	 */
+	public static boolean isApplicable(PowerPlantState state) {
+		if (state.getPower() == null || state.isRunning() == null || state.getConsRunning() == null
+				|| state.getConsStopping() == null || state.getData().getAssociatedConstraints() == null)
+			return false;
+		if (state.onOrOff() || !state.getConsRunning().min.equals(state.getConsRunning().max)
+				|| !state.getConsStopping().min.equals(state.getConsStopping().max))
+			return false;
+		for (Constraint c : state.getData().getAssociatedConstraints()) {
+			if (!c.isSoft() && c instanceof StopTimeConstraint)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Advances all states by one step
+	 *
+	 * @param t
+	 *            simulation step passed to the constraints
+	 * @return the power the plant can provide in that step
+	 */
+	public IntervalSet step(int t) {
+		double plantMin = data.getPowerBoundaries().min;
+		Map<Long, List<State>> successors = new HashMap<Long, List<State>>();
+		for (State s : states) {
+			load(s, t);
+			double pMin = -(Double.MAX_VALUE - 1);
+			double pMax = Double.MAX_VALUE;
+			boolean onMin = false;
+			boolean onMax = true;
+			for (Constraint c : data.getAssociatedConstraints()) {
+				if (!c.isSoft()) {
+					pMin = Math.max(c.minimize(probe), pMin);
+					onMin = c.minimizeBool(probe) || onMin;
+					pMax = Math.min(c.maximize(probe), pMax);
+					onMax = c.maximizeBool(probe) && onMax;
+				}
+			}
+			// contradicting constraints keep both modes as the intervals do
+			if (onMax || onMin) {
+				int counter = s.running ? Math.min(s.counter + 1, onCap) : 1;
+				add(successors, new State(true, counter, pMin, Math.max(pMax, plantMin)));
+			}
+			if (!onMin || !onMax) {
+				int counter = s.running ? 1 : Math.min(s.counter + 1, offCap);
+				add(successors, new State(false, counter, 0.0, 0.0));
+			}
+		}
+		states = prune(successors.values());
+		if (states.size() > maxStates)
+			states = prune(collapse(states));
+		peakSize = Math.max(peakSize, states.size());
+
+		double[] bounds = new double[2 * states.size()];
+		int i = 0;
+		for (State s : states) {
+			if (s.running) {
+				bounds[i++] = Math.max(s.powerMin, plantMin);
+				bounds[i++] = Math.max(s.powerMax, plantMin + delta);
+			} else {
+				bounds[i++] = 0.0;
+				bounds[i++] = 0.0;
+			}
+		}
+		return IntervalSet.fromBounds(bounds);
+	}
+
+	private void load(State s, int t) {
+		probe.setSimulationStep(t);
+		probe.setRunning(new Interval<Boolean>(s.running));
+		probe.setPower(new Interval<Double>(s.powerMin, s.powerMax));
+		probe.setConsRunning(new Interval<Integer>(s.running ? s.counter : 0));
+		probe.setConsStopping(new Interval<Integer>(s.running ? 0 : s.counter));
+	}
+
+	private static Long key(State s) {
+		return s.running ? (long) s.counter : -(long) s.counter - 1;
+	}
+
+	/**
+	 * States with the same mode and counter and overlapping power are merged
+	 * into their hull
+	 */
+	private static void add(Map<Long, List<State>> successors, State s) {
+		List<State> same = successors.get(key(s));
+		if (same == null) {
+			same = new ArrayList<State>(2);
+			successors.put(key(s), same);
+		}
+		for (Iterator<State> it = same.iterator(); it.hasNext();) {
+			State existing = it.next();
+			if (existing.powerMin <= s.powerMax && s.powerMin <= existing.powerMax) {
+				// later states are checked against the grown hull
+				it.remove();
+				s.powerMin = Math.min(existing.powerMin, s.powerMin);
+				s.powerMax = Math.max(existing.powerMax, s.powerMax);
+			}
+		}
+		same.add(s);
+	}
+
+	/**
+	 * Merges all states with the same mode and counter
+	 */
+	private static Collection<List<State>> collapse(List<State> states) {
+		Map<Long, List<State>> merged = new HashMap<Long, List<State>>();
+		for (State s : states) {
+			List<State> same = merged.get(key(s));
+			if (same == null) {
+				merged.put(key(s), new ArrayList<State>(Collections.singletonList(s)));
+			} else {
+				State hull = same.get(0);
+				hull.powerMin = Math.min(hull.powerMin, s.powerMin);
+				hull.powerMax = Math.max(hull.powerMax, s.powerMax);
+			}
+		}
+		return merged.values();
+	}
+
+	private static List<State> prune(Collection<List<State>> candidates) {
+		List<State> kept = new ArrayList<State>();
+		for (List<State> same : candidates) {
+			for (State s : same)
+				keepUndominated(kept, s);
+		}
+		return kept;
+	}
+
+	private static void keepUndominated(List<State> kept, State s) {
+		for (Iterator<State> it = kept.iterator(); it.hasNext();) {
+			State k = it.next();
+			if (k.dominates(s))
+				return;
+			else if (s.dominates(k))
+				it.remove();
+		}
+		kept.add(s);
+	}
+
+	/**
+	 * @return the number of discrete states after the last step
+	 */
+	public int size() {
+		return states.size();
+	}
+
+	public int getPeakSize() {
+		return peakSize;
+	}
+
+	public int getMaxStates() {
+		return maxStates;
+	}
+
+	/**
+	 * Bound on the number of states kept, exceeding it merges the power
+	 * intervals of states with the same counters
+	 *
+	 * @param maxStates
+	 */
+	public void setMaxStates(int maxStates) {
+		if (maxStates < 1)
+			throw new IllegalArgumentException("At least one state has to be kept but was " + maxStates);
+		this.maxStates = maxStates;
+	}
+}
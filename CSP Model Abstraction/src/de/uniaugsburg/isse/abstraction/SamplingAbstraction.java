@@ -3,16 +3,26 @@ package de.uniaugsburg.isse.abstraction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import de.uniaugsburg.isse.abstraction.types.Interval;
 import de.uniaugsburg.isse.abstraction.types.PiecewiseLinearFunction;
 import de.uniaugsburg.isse.solver.AbstractSolver;
+import de.uniaugsburg.isse.solver.AbstractSolverFactory;
 import de.uniaugsburg.isse.util.AbstractionParameterLiterals;
 
 /**
@@ -103,6 +113,16 @@ public class SamplingAbstraction {
 	private Collection<String> maximizationDecisionExpressions;
 	private HashMap<OptimizationCriterion, PiecewiseLinearFunction> extractedFunctions;
 	private double tolerance = 0.1; // if strictly greater 0 -> allow for
+	private static final double JITTER = 0.001;
+	private AbstractSolverFactory solverFactory;
+	private int samplingThreads; // <= 1 samples sequentially on solver
+	private double adaptiveTolerance; // <= 0 samples equi-distant points
+	private int solveCount;
+	private boolean warmStart;
+	private boolean parametric;
+	private Collection<String> monotonicDecisionExpressions;
+	private double monotoneTolerance = JITTER;
+	private double interpolationError;
 
 	public double getTolerance() {
 		return tolerance;
@@ -118,6 +138,7 @@ public class SamplingAbstraction {
 	public SamplingAbstraction() {
 		minimizationDecisionExpressions = new LinkedList<String>();
 		maximizationDecisionExpressions = new LinkedList<String>();
+		monotonicDecisionExpressions = new LinkedList<String>();
 	}
 
 	public SamplingAbstraction(SortedSet<Interval<Double>> generalFeasibleRegions, Collection<Interval<Double>> holes) {
@@ -132,16 +153,21 @@ public class SamplingAbstraction {
 	 * @param decExpr
 	 */
 	public void perform(int samplePoints) {
-		setInputPoints(calculateInputPoints(samplePoints));
+		List<Double> calculated = calculateInputPoints(samplePoints);
+		// without feasible regions there is nothing to sample
+		setInputPoints(calculated == null ? new ArrayList<Double>(0) : calculated);
 
 		// assuming AbstractModel and AbstractSolver are aready tied together
 		// and consistent with generalFeasibleRegions
-		solver.getModel().setFeasibleRegions(generalFeasibleRegions);
-		solver.getModel().setGeneralHoles(generalHoles);
+		if (solver != null) {
+			solver.getModel().setFeasibleRegions(generalFeasibleRegions);
+			solver.getModel().setGeneralHoles(generalHoles);
+		}
 		Collection<OptimizationCriterion> optimizationCriteria = new ArrayList<SamplingAbstraction.OptimizationCriterion>(
 				minimizationDecisionExpressions.size() + maximizationDecisionExpressions.size());
 		for (String minimization : minimizationDecisionExpressions) {
 			OptimizationCriterion oc = new OptimizationCriterion(minimization, true);
+			oc.setMonotonic(monotonicDecisionExpressions.contains(minimization));
 			if (minimization.equals(AbstractionParameterLiterals.DEXP_COSTS + "Init")) {
 				oc.setExtensive(false);
 			} else
@@ -151,9 +177,8 @@ public class SamplingAbstraction {
 
 		for (String maximization : maximizationDecisionExpressions) {
 			OptimizationCriterion oc = new OptimizationCriterion(maximization, false);
-			// TODO let user decide whether problem is monotonic or not
 			// Power management change speed is NOT monotonic, nor extensive in general
-			// oc.setMonotonic(true);
+			oc.setMonotonic(monotonicDecisionExpressions.contains(maximization));
 			if (maximization.equals(AbstractionParameterLiterals.DEXP_COSTS + "Init")) {
 				oc.setExtensive(false);
 			} else
@@ -163,92 +188,433 @@ public class SamplingAbstraction {
 
 		extractedFunctions = new HashMap<OptimizationCriterion, PiecewiseLinearFunction>();
 
+		boolean parallel = samplingThreads > 1 && solverFactory != null;
+		boolean adaptive = adaptiveTolerance > 0.0 && calculated != null;
+		if (adaptive)
+			setInputPoints(getRegionBoundaries()); // refined while sampling
+		List<List<SampleRun>> allRuns = new ArrayList<List<SampleRun>>(optimizationCriteria.size());
+		List<SampleRun> tasks = new ArrayList<SampleRun>();
+		int points = getInputPoints().size();
 		for (OptimizationCriterion oc : optimizationCriteria) {
-			getSolver().setObjective(oc.decExpr, oc.minimize);
-			getSolver().setInputExpr(AbstractionParameterLiterals.DEXP_POWER + "Init");
+			List<SampleRun> runs = new ArrayList<SampleRun>();
+			if (points == 0 && !adaptive) {
+				// no runs, the function stays empty
+			} else if (adaptive) {
+				runs.add(new SampleRun(oc, samplePoints, parallel ? null : getSolver()));
+			} else if (!parallel) {
+				runs.add(new SampleRun(oc, 0, points, getSolver()));
+			} else if (oc.isMonotonic()) {
+				// needs the previous result of every point
+				runs.add(new SampleRun(oc, 0, points, null));
+			} else {
+				int runLength = (points + samplingThreads - 1) / samplingThreads;
+				for (int from = 0; from < points; from += runLength)
+					runs.add(new SampleRun(oc, from, Math.min(from + runLength, points), null));
+			}
+			allRuns.add(runs);
+			tasks.addAll(runs);
+		}
+
+		if (parallel) {
+			solveConcurrently(tasks);
+			if (!adaptive) {
+				for (List<SampleRun> runs : allRuns)
+					reseed(runs);
+			}
+		} else {
+			for (SampleRun run : tasks)
+				run.call();
+		}
 
-			List<Double> ins = getInputPoints();
-			double[] inputs = new double[getInputPoints().size()];
-			double[] outputs = new double[getInputPoints().size()];
+		solveCount = 0;
+		interpolationError = 0.0;
+		int criterion = 0;
+		for (OptimizationCriterion oc : optimizationCriteria) {
+			List<SampleRun> runs = allRuns.get(criterion++);
+			int samples = 0;
+			for (SampleRun run : runs) {
+				samples += run.count;
+				solveCount += run.solves;
+				interpolationError = Math.max(interpolationError, run.interpolationError);
+			}
+			double[] inputs = new double[Math.max(samples, points)];
+			double[] outputs = new double[Math.max(samples, points)];
 			int index = 0;
-			double prevResult = Double.NEGATIVE_INFINITY;
-			double prevInput = Double.NEGATIVE_INFINITY;
-
-			List<Double> inPoints = getInputPoints();
-			for (Double inputPoint : inPoints) {
-				getSolver().setInput(inputPoint, tolerance * stepSize);
-				// make sure tolerance is limited to inputPoint - prevInput
-				if (prevResult != Double.NEGATIVE_INFINITY) {
-					double prevStep = inputPoint - prevInput;
-					assert prevStep > 0.0;
-
-					double inputLowerBound = Math.max(prevInput + prevStep * tolerance, inputPoint - prevStep * tolerance);
-					getSolver().setInputLowerBound(inputLowerBound);
-					if (oc.isMonotonic()) { // output has to be greater than or
-											// equal to prev result
-
-						getSolver().setOutputLowerBound(oc.decExpr, prevResult);
-						// TODO revise monotonicity for minimization problems
-					}
+			for (SampleRun run : runs) {
+				for (int k = 0; k < run.count; ++k) {
+					inputs[index] = run.inputs[k];
+					outputs[index] = run.outputs[k];
+					++index;
 				}
-				if (oc.isExtensive()) {
-					// x <= y => f(x) <= f(y) && f(x) >= x for maximization
-					getSolver().getModel().requireEqualBound();
+			}
+
+			if (index == 0)
+				System.err.println("Empty points received!" + Arrays.toString(getInputPoints().toArray()));
+			PiecewiseLinearFunction pwl = new PiecewiseLinearFunction();
+			pwl.convert(inputs, outputs, index);
+			if (prolongAdInfinitum)
+				pwl.prolongAdInfinitum();
+
+			extractedFunctions.put(oc, pwl);
+		}
+	}
+
+	/**
+	 * A concurrent run after the first one bounds its first point by the planned input point before it, without the
+	 * result before it. Its points are solved again in order from the actual last sample before them, as on the
+	 * sequential path, until a solve repeats the sample of the run: all points after it got the same bounds then.
+	 * 
+	 * @param runs
+	 *            consecutive runs of one criterion in ascending order
+	 */
+	private void reseed(List<SampleRun> runs) {
+		double[] prev = null;
+		for (SampleRun run : runs) {
+			if (run.samples == null) // bracketing
+				return;
+			if (run.from > 0)
+				run.reseed(prev);
+			for (double[] sample : run.samples) {
+				if (sample != null)
+					prev = sample;
+			}
+		}
+	}
+
+	/**
+	 * Samples one criterion on one solver, either consecutive input points in ascending order or adaptively
+	 */
+	private class SampleRun implements Callable<Void> {
+		private final OptimizationCriterion oc;
+		private final int from;
+		private final int to;
+		private final int solveBudget; // adaptive if > 0
+		private AbstractSolver runSolver; // created on the worker if null
+		private double[][] samples; // in order: actual input and result per point, null if not solved
+		private double[] inputs;
+		private double[] outputs;
+		private int count;
+		private int solves;
+		private double interpolationError; // bound for points not solved
+
+		SampleRun(OptimizationCriterion oc, int from, int to, AbstractSolver runSolver) {
+			this.oc = oc;
+			this.from = from;
+			this.to = to;
+			this.solveBudget = 0;
+			this.runSolver = runSolver;
+		}
+
+		SampleRun(OptimizationCriterion oc, int solveBudget, AbstractSolver runSolver) {
+			this.oc = oc;
+			this.from = 0;
+			this.to = 0;
+			this.solveBudget = Math.max(solveBudget, 1);
+			this.runSolver = runSolver;
+		}
+
+		@Override
+		public Void call() {
+			if (runSolver == null) {
+				runSolver = solverFactory.createSolver();
+				runSolver.getModel().setFeasibleRegions(generalFeasibleRegions);
+				runSolver.getModel().setGeneralHoles(generalHoles);
+			}
+			prepareSolver();
+			try {
+				if (solveBudget > 0)
+					sampleAdaptively();
+				else if (oc.isMonotonic())
+					sampleBracketing();
+				else
+					sampleInOrder();
+			} finally {
+				// releases a model generated for this criterion
+				runSolver.setParametric(false);
+			}
+			return null;
+		}
+
+		private void prepareSolver() {
+			runSolver.setParametric(parametric);
+			runSolver.setObjective(oc.decExpr, oc.minimize);
+			runSolver.setInputExpr(AbstractionParameterLiterals.DEXP_POWER + "Init");
+			// each solve starts from the previous point of this criterion
+			runSolver.setWarmStart(warmStart);
+			runSolver.resetWarmStart();
+		}
+
+		private void sampleInOrder() {
+			samples = new double[to - from][];
+			// later runs start from the planned previous point, see reseed
+			double[] prev = from == 0 ? null : new double[] { getInputPoints().get(from - 1), Double.NEGATIVE_INFINITY };
+			solveFrom(prev, false);
+			collect(samples);
+		}
+
+		/**
+		 * Solves the points of this run again with the actual sample before them
+		 */
+		private void reseed(double[] prev) {
+			prepareSolver();
+			try {
+				solveFrom(prev, true);
+			} finally {
+				runSolver.setParametric(false);
+			}
+			collect(samples);
+		}
+
+		/**
+		 * Solves the points in ascending order, each bounded by the last sample before it
+		 * 
+		 * @param prev
+		 *            sample before the first point, null if none
+		 * @param stopOnRepeat
+		 *            stops at the first solved sample equal to the one already stored for its point
+		 */
+		private void solveFrom(double[] prev, boolean stopOnRepeat) {
+			for (int i = 0; i < samples.length; ++i) {
+				double[] sample = solve(getInputPoints().get(from + i), tolerance * stepSize, prev == null ? Double.NEGATIVE_INFINITY
+						: prev[0], prev == null ? Double.NEGATIVE_INFINITY : prev[1]);
+				if (stopOnRepeat && sample != null && Arrays.equals(sample, samples[i]))
+					return;
+				samples[i] = sample;
+				if (sample != null)
+					prev = sample;
+			}
+		}
+
+		/**
+		 * Keeps the solved samples as inputs and outputs
+		 */
+		private void collect(double[][] solved) {
+			inputs = new double[solved.length];
+			outputs = new double[solved.length];
+			count = 0;
+			for (double[] sample : solved) {
+				if (sample != null) {
+					inputs[count] = sample[0];
+					outputs[count] = sample[1];
+					++count;
 				}
-				getSolver().solve();
-				if (getSolver().isSolved()) {
-					// actually I would prefer oc.decExpr to state the decision expression
-					// but there is a bug in CPLEX (12.4) prohibiting this -> thus use objective
-					// double result = getSolver().getResult(oc.decExpr);
-					double result = getSolver().getObjective();
+			}
+		}
 
-					double actualInput = getSolver().getResult(AbstractionParameterLiterals.DEXP_POWER + "Init");
+		/**
+		 * Solves the first and last point and bisects between them. For a monotonic criterion, all points between two
+		 * solved ones have outputs between theirs, so if those differ by at most the monotone tolerance the points in
+		 * between are interpolated instead of solved, with that difference as error bound.
+		 */
+		private void sampleBracketing() {
+			double[][] samples = new double[to - from][]; // actual input and result, null if not solved
+			boolean[] tried = new boolean[to - from];
+			solveBetween(samples, tried, -1, 0);
+			if (samples.length > 1)
+				solveBetween(samples, tried, samples.length - 2, samples.length - 1);
+			if (samples[0] == null || samples[samples.length - 1] == null)
+				solveBetween(samples, tried, -1, samples.length - 1); // no bracket
+			else
+				bracket(samples, tried, 0, samples.length - 1);
+			collect(samples);
+		}
 
-					inputs[index] = actualInput;
-					outputs[index] = result;
+		private void bracket(double[][] samples, boolean[] tried, int lo, int hi) {
+			if (hi - lo < 2)
+				return;
+			double[] a = samples[lo], b = samples[hi];
+			if (Math.abs(b[1] - a[1]) <= monotoneTolerance && b[0] > a[0]) {
+				for (int i = lo + 1; i < hi; ++i) {
+					double x = Math.min(Math.max(getInputPoints().get(from + i), a[0]), b[0]);
+					samples[i] = new double[] { x, a[1] + (b[1] - a[1]) * (x - a[0]) / (b[0] - a[0]) };
+				}
+				interpolationError = Math.max(interpolationError, Math.abs(b[1] - a[1]));
+				return;
+			}
+			int mid = (lo + hi) >>> 1;
+			solveBetween(samples, tried, mid - 1, mid);
+			if (samples[mid] == null) {
+				solveBetween(samples, tried, lo, hi); // no bracket around it
+			} else {
+				bracket(samples, tried, lo, mid);
+				bracket(samples, tried, mid, hi);
+			}
+		}
 
-					double jit = 0.001;
+		/**
+		 * Solves the points after lo up to hi that were not tried yet, in ascending order
+		 */
+		private void solveBetween(double[][] samples, boolean[] tried, int lo, int hi) {
+			for (int i = lo + 1; i <= hi; ++i) {
+				if (tried[i])
+					continue;
+				tried[i] = true;
+				double[] left = null;
+				for (int j = i - 1; j >= 0 && left == null; --j)
+					left = samples[j];
+				samples[i] = solve(getInputPoints().get(from + i), tolerance * stepSize, left == null ? Double.NEGATIVE_INFINITY
+						: left[0], left == null ? Double.NEGATIVE_INFINITY : left[1]);
+			}
+		}
 
-					if (!oc.minimize && result < prevResult && prevResult - result > jit) {
+		/**
+		 * Starts at the region boundaries and bisects the widest segment whose midpoint deviated from the linear
+		 * interpolation by more than the adaptive tolerance until none is left or the budget is used up
+		 */
+		private void sampleAdaptively() {
+			TreeMap<Double, Double> samples = new TreeMap<Double, Double>();
+			Comparator<double[]> widestFirst = new Comparator<double[]>() {
+				@Override
+				public int compare(double[] o1, double[] o2) {
+					return Double.compare(o2[1] - o2[0], o1[1] - o1[0]);
+				}
+			};
+			PriorityQueue<double[]> segments = new PriorityQueue<double[]>(Math.max(generalFeasibleRegions.size(), 1), widestFirst);
+
+			for (Interval<Double> region : generalFeasibleRegions) {
+				double[] low = solveRight(samples, region.min, tolerance * stepSize);
+				if (region.max > region.min) {
+					double[] high = solveRight(samples, region.max, tolerance * stepSize);
+					if (low != null && high != null && high[0] > low[0])
+						segments.add(new double[] { low[0], high[0] });
+				}
+			}
 
-						System.out.println("Res: " + result + " in " + actualInput);
-						System.out.println("PrevRes: " + prevResult + " in " + prevInput);
-					}
+			while (!segments.isEmpty() && solves < solveBudget) {
+				double[] segment = segments.poll();
+				double a = segment[0], b = segment[1];
+				double fa = samples.get(a), fb = samples.get(b);
+				if (oc.isMonotonic() && Math.abs(fb - fa) <= adaptiveTolerance) {
+					// the whole segment lies within the tolerance of the interpolation
+					interpolationError = Math.max(interpolationError, Math.abs(fb - fa));
+					continue;
+				}
+				double[] mid = solve((a + b) / 2, tolerance * (b - a) / 2, a, fa);
+				if (mid == null || mid[0] <= a || mid[0] >= b)
+					continue;
+				samples.put(mid[0], mid[1]);
+				double interpolated = fa + (fb - fa) * (mid[0] - a) / (b - a);
+				if (Math.abs(mid[1] - interpolated) > adaptiveTolerance) {
+					segments.add(new double[] { a, mid[0] });
+					segments.add(new double[] { mid[0], b });
+				}
+			}
 
-					if (result < prevResult && prevResult - result <= jit) {
-						result = prevResult;
-						outputs[index] = result;
-					}
+			inputs = new double[samples.size()];
+			outputs = new double[samples.size()];
+			for (Map.Entry<Double, Double> sample : samples.entrySet()) {
+				inputs[count] = sample.getKey();
+				outputs[count] = sample.getValue();
+				++count;
+			}
+		}
 
-					if (Math.abs(actualInput - result) < jit) {
-						result = actualInput;
-						outputs[index] = result;
-					}
+		/**
+		 * Solves a point right of all samples so far and adds it
+		 */
+		private double[] solveRight(TreeMap<Double, Double> samples, double inputPoint, double inputTolerance) {
+			Map.Entry<Double, Double> left = samples.isEmpty() ? null : samples.lastEntry();
+			double[] sample = solve(inputPoint, inputTolerance, left == null ? Double.NEGATIVE_INFINITY : left.getKey(),
+					left == null ? Double.NEGATIVE_INFINITY : left.getValue());
+			if (sample != null)
+				samples.put(sample[0], sample[1]);
+			return sample;
+		}
 
-					if ((actualInput < result && oc.minimize && oc.extensive) || (actualInput > result && !oc.minimize && oc.extensive)) {
-						throw new RuntimeException("Invalid result input: " + actualInput + " output " + result + " violates extensivity property ");
-					}
-					++index;
-					getSolver().cleanup();
-					prevInput = actualInput;
-					prevResult = result;
-				} else {
-					getSolver().cleanup();
-					System.out.println("Failed to find a solution for " + oc.decExpr + " " + oc.minimize);
+		/**
+		 * Solves the criterion for one input point
+		 * 
+		 * @param inputPoint
+		 * @param inputTolerance
+		 * @param prevInput
+		 *            actual input of the sample left of it, negative infinity if none
+		 * @param prevResult
+		 *            result of the sample left of it
+		 * @return actual input and result, null if not solved
+		 */
+		private double[] solve(double inputPoint, double inputTolerance, double prevInput, double prevResult) {
+			++solves;
+			runSolver.setInput(inputPoint, inputTolerance);
+			// make sure tolerance is limited to inputPoint - prevInput
+			if (prevInput != Double.NEGATIVE_INFINITY) {
+				double prevStep = inputPoint - prevInput;
+				assert prevStep > 0.0;
+
+				double inputLowerBound = Math.max(prevInput + prevStep * tolerance, inputPoint - prevStep * tolerance);
+				runSolver.setInputLowerBound(inputLowerBound);
+				if (oc.isMonotonic() && prevResult != Double.NEGATIVE_INFINITY) { // output has to be greater than
+																					// or equal to prev result
+
+					runSolver.setOutputLowerBound(oc.decExpr, prevResult);
+					// TODO revise monotonicity for minimization problems
 				}
 			}
+			if (oc.isExtensive()) {
+				// x <= y => f(x) <= f(y) && f(x) >= x for maximization
+				runSolver.getModel().requireEqualBound();
+			}
+			runSolver.solve();
+			if (runSolver.isSolved()) {
+				// actually I would prefer oc.decExpr to state the decision expression
+				// but there is a bug in CPLEX (12.4) prohibiting this -> thus use objective
+				// double result = runSolver.getResult(oc.decExpr);
+				double result = runSolver.getObjective();
 
-			if (index == 0)
-				System.err.println("Empty points received!" + Arrays.toString(inPoints.toArray()));
-			PiecewiseLinearFunction pwl = new PiecewiseLinearFunction();
-			pwl.convert(inputs, outputs, index);
-			if (prolongAdInfinitum)
-				pwl.prolongAdInfinitum();
+				double actualInput = runSolver.getResult(AbstractionParameterLiterals.DEXP_POWER + "Init");
 
-			extractedFunctions.put(oc, pwl);
+				if (!oc.minimize && result < prevResult && prevResult - result > JITTER) {
+
+					System.out.println("Res: " + result + " in " + actualInput);
+					System.out.println("PrevRes: " + prevResult + " in " + prevInput);
+				}
+
+				if (result < prevResult && prevResult - result <= JITTER) {
+					result = prevResult;
+				}
+
+				if (Math.abs(actualInput - result) < JITTER) {
+					result = actualInput;
+				}
+
+				if ((actualInput < result && oc.minimize && oc.extensive) || (actualInput > result && !oc.minimize && oc.extensive)) {
+					throw new RuntimeException("Invalid result input: " + actualInput + " output " + result + " violates extensivity property ");
+				}
+				runSolver.cleanup();
+				return new double[] { actualInput, result };
+			} else {
+				runSolver.cleanup();
+				System.out.println("Failed to find a solution for " + oc.decExpr + " " + oc.minimize);
+				return null;
+			}
 		}
 	}
 
+	private void solveConcurrently(List<SampleRun> tasks) {
+		if (tasks.isEmpty())
+			return;
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(samplingThreads, tasks.size()));
+		try {
+			for (Future<Void> task : executor.invokeAll(tasks))
+				task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while sampling", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private List<Double> getRegionBoundaries() {
+		TreeSet<Double> boundaries = new TreeSet<Double>();
+		for (Interval<Double> feasibleRegion : generalFeasibleRegions) {
+			boundaries.add(feasibleRegion.min);
+			boundaries.add(feasibleRegion.max);
+		}
+		return new ArrayList<Double>(boundaries);
+	}
+
 	/**
 	 * Calculates a list of equi-distant sample points contains minimally the interval boundaries of feasible regions
 	 * 
@@ -318,6 +684,123 @@ public class SamplingAbstraction {
 		this.solver = solver;
 	}
 
+	public AbstractSolverFactory getSolverFactory() {
+		return solverFactory;
+	}
+
+	/**
+	 * Creates the solvers for concurrent sampling, each has to be tied to a model configured like the one of the
+	 * sequential solver (plant data, decision expressions)
+	 * 
+	 * @param solverFactory
+	 */
+	public void setSolverFactory(AbstractSolverFactory solverFactory) {
+		this.solverFactory = solverFactory;
+	}
+
+	public int getSamplingThreads() {
+		return samplingThreads;
+	}
+
+	/**
+	 * Number of threads solving concurrently if a solver factory is set. The input points of each criterion are split
+	 * into that many runs of consecutive points, each run is solved in order on its own solver; the points of a run
+	 * whose first one was bounded by the planned instead of the solved point before it are solved again, so the results
+	 * equal the sequential ones. 0 or 1 samples sequentially on the solver.
+	 * 
+	 * @param samplingThreads
+	 */
+	public void setSamplingThreads(int samplingThreads) {
+		this.samplingThreads = samplingThreads;
+	}
+
+	public double getAdaptiveTolerance() {
+		return adaptiveTolerance;
+	}
+
+	/**
+	 * Samples adaptively if greater 0: starting from the boundaries of the feasible regions, a segment is bisected as
+	 * long as the solved value at its midpoint deviates from the linear interpolation by more than this tolerance.
+	 * The sample points passed to perform then bound the number of solves per criterion, the region boundaries are
+	 * always solved.
+	 * 
+	 * @param adaptiveTolerance
+	 */
+	public void setAdaptiveTolerance(double adaptiveTolerance) {
+		this.adaptiveTolerance = adaptiveTolerance;
+	}
+
+	/**
+	 * @return the number of solver calls of the last perform over all criteria
+	 */
+	public int getSolveCount() {
+		return solveCount;
+	}
+
+	public boolean isWarmStart() {
+		return warmStart;
+	}
+
+	/**
+	 * Passes the solution of each sample point as warm start hint to the solve of the next one, off by default
+	 * 
+	 * @param warmStart
+	 */
+	public void setWarmStart(boolean warmStart) {
+		this.warmStart = warmStart;
+	}
+
+	public boolean isParametric() {
+		return parametric;
+	}
+
+	/**
+	 * Lets the solver generate the model once per criterion and change only the bounds of the input between sample
+	 * points, see AbstractSolver.setParametric
+	 * 
+	 * @param parametric
+	 */
+	public void setParametric(boolean parametric) {
+		this.parametric = parametric;
+	}
+
+	public Collection<String> getMonotonicDecisionExpressions() {
+		return monotonicDecisionExpressions;
+	}
+
+	/**
+	 * Decision expressions that are monotonic in the input, x <= y => f(x) <= f(y). Their sample points are solved
+	 * by bisection, and points between two solved ones whose outputs differ by at most the monotone tolerance are
+	 * interpolated; in adaptive mode such segments are not bisected further.
+	 * 
+	 * @param monotonicDecisionExpressions
+	 */
+	public void setMonotonicDecisionExpressions(Collection<String> monotonicDecisionExpressions) {
+		this.monotonicDecisionExpressions = monotonicDecisionExpressions;
+	}
+
+	public double getMonotoneTolerance() {
+		return monotoneTolerance;
+	}
+
+	/**
+	 * Largest output difference of two solved points of a monotonic criterion for which the points in between are
+	 * interpolated
+	 * 
+	 * @param monotoneTolerance
+	 */
+	public void setMonotoneTolerance(double monotoneTolerance) {
+		this.monotoneTolerance = monotoneTolerance;
+	}
+
+	/**
+	 * @return a bound on the error of interpolated instead of solved points of the last perform, 0 if all were
+	 *         solved
+	 */
+	public double getInterpolationError() {
+		return interpolationError;
+	}
+
 	public Collection<String> getMinimizationDecisionExpressions() {
 		return minimizationDecisionExpressions;
 	}
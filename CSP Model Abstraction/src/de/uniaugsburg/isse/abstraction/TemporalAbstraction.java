@@ -1,12 +1,24 @@
 package de.uniaugsburg.isse.abstraction;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import de.uniaugsburg.isse.abstraction.merging.HoleDetection;
+import de.uniaugsburg.isse.abstraction.merging.MinkowskiSumTree;
 import de.uniaugsburg.isse.abstraction.types.Interval;
+import de.uniaugsburg.isse.abstraction.types.IntervalSet;
+import de.uniaugsburg.isse.abstraction.types.QuantizedIntervalSet;
+import de.uniaugsburg.isse.abstraction.types.RegionSequence;
 import de.uniaugsburg.isse.constraints.Constraint;
 import de.uniaugsburg.isse.powerplants.PowerPlantData;
 import de.uniaugsburg.isse.powerplants.PowerPlantState;
@@ -24,8 +36,30 @@ public class TemporalAbstraction extends GeneralAbstraction {
 	protected Collection<Constraint> temporalConstraint;
 	protected List<SortedSet<Interval<Double>>> allFeasibleRegions;
 	protected List<Collection<Interval<Double>>> allHoles;
+	private RegionSequence regionSequence;
+	private static final int PROPAGATION_CHUNK = 16; // plants per task
 	private Double delta = 2.0; // delta to avoid having single points when
 								// starting up
+	private boolean useSumTree;
+
+	private ExecutorService propagationExecutor;
+	private boolean useCompiledConstraints;
+	private boolean exactStopTimes;
+
+	// rolling horizon
+	private boolean rolling;
+	private Map<PowerPlantData, PlantTrack> tracks;
+	private List<MinkowskiSumTree> stepTrees; // index t - 1
+	private int recomputedPlants;
+
+	// pruning to the plausible targets, index t - 1
+	private double[] targetLower;
+	private double[] targetUpper;
+	private int prunedIntervals;
+
+	// saturation of compiled plants
+	private Map<PowerPlantData, Integer> saturationSteps;
+	private int horizonSaturationStep;
 
 	/**
 	 * performs time sensitive abstraction up to some time step t maximizes and
@@ -35,126 +69,775 @@ public class TemporalAbstraction extends GeneralAbstraction {
 	 */
 	public final void perform(int T) {
 		// first order set by P_min
+		List<Map<PowerPlantData, PowerPlantState>> initial = Collections
+				.emptyList();
+		regionSequence = propagate(T, initial, null, true).get(0);
+		allFeasibleRegions = regionSequence.getFeasibleRegions();
+		allHoles = regionSequence.getHoles();
+	}
 
-		ArrayList<PowerPlantState> plantStates = new ArrayList<PowerPlantState>(
-				powerPlants.size());
-		ArrayList<PowerPlantData> avpps = new ArrayList<PowerPlantData>(
-				powerPlants.size());
+	/**
+	 * Temporal abstraction for several initial state vectors (lanes) of the
+	 * concrete plants in one pass: compiled plants of all lanes are advanced
+	 * together by one kernel, the others per lane, and the children are summed
+	 * per lane. AVPP children contribute their own regions to every lane. Each
+	 * lane stops on its own once it converges; results are returned and do not
+	 * replace those of perform.
+	 * 
+	 * @param T
+	 * @param laneStates
+	 *            initial states per lane, plants not contained start from the
+	 *            init values of their data
+	 * @return the regions of each lane
+	 */
+	public final List<RegionSequence> performBatch(int T,
+			List<? extends Map<PowerPlantData, PowerPlantState>> laneStates) {
+		return propagate(T, laneStates, null, false);
+	}
 
-		HoleDetection hd = new HoleDetection();
+	/**
+	 * Batch over a hierarchy: AVPP children may contribute their own regions
+	 * per lane, e.g. the results of their batch for the same lanes
+	 * 
+	 * @param T
+	 * @param laneStates
+	 *            initial states per lane, plants not contained start from the
+	 *            init values of their data
+	 * @param laneSequences
+	 *            regions of AVPP children per lane, AVPPs not contained use
+	 *            their region sequence
+	 * @return the regions of each lane
+	 */
+	public final List<RegionSequence> performBatch(int T,
+			List<? extends Map<PowerPlantData, PowerPlantState>> laneStates,
+			List<? extends Map<PowerPlantData, RegionSequence>> laneSequences) {
+		if (laneSequences.size() != laneStates.size())
+			throw new IllegalArgumentException(laneSequences.size()
+					+ " lanes of AVPP regions for " + laneStates.size()
+					+ " lanes of initial states");
+		return propagate(T, laneStates, laneSequences, false);
+	}
 
-		allFeasibleRegions = new ArrayList<SortedSet<Interval<Double>>>();
-		allHoles = new ArrayList<Collection<Interval<Double>>>();
-		SortedSet<Interval<Double>> feasibleRegions;
-		Collection<Interval<Double>> holes;
+	/**
+	 * Common core of perform and performBatch
+	 * 
+	 * @param T
+	 * @param laneStates
+	 *            initial states per lane; perform passes none and runs one
+	 *            lane from the init values
+	 * @param laneSequences
+	 *            regions of AVPP children per lane, null if all lanes use
+	 *            their region sequence
+	 * @param single
+	 *            called by perform: rolling tracks, saturation steps and the
+	 *            horizon saturation step are kept
+	 * @return
+	 */
+	private List<RegionSequence> propagate(int T,
+			List<? extends Map<PowerPlantData, PowerPlantState>> laneStates,
+			List<? extends Map<PowerPlantData, RegionSequence>> laneSequences,
+			boolean single) {
+		int lanes = single ? 1 : laneStates.size();
+		boolean keepTracks = single && rolling;
+		HoleDetection hd = getHoleDetection();
+		peakIntermediateSize = 0;
+		prunedIntervals = 0;
+		admittedPower = 0.0;
+		savedHoleConstraints = 0;
+		recomputedPlants = 0;
+		QuantizedIntervalSet generalRegions = quantizeGeneralRegions(hd);
+		if (single && (!rolling || tracks == null)) {
+			tracks = new IdentityHashMap<PowerPlantData, PlantTrack>();
+			stepTrees = new ArrayList<MinkowskiSumTree>();
+		} else if (keepTracks && !stepTrees.isEmpty()) {
+			stepTrees.remove(0); // the horizon moved by one step
+		}
 
-		// collect initial state
-		for (PowerPlantData pd : powerPlants) {
+		// collect initial states
+		List<List<RegionSequence.Cursor>> avppCursors = new ArrayList<List<RegionSequence.Cursor>>();
+		List<IntervalSet> avppGeneralRegions = new ArrayList<IntervalSet>();
+		List<List<PowerPlantState>> compiledStates = new ArrayList<List<PowerPlantState>>();
+		List<List<PlantTrack>> laneTracks = new ArrayList<List<PlantTrack>>();
+		for (int lane = 0; lane < lanes; ++lane) {
+			compiledStates.add(new ArrayList<PowerPlantState>());
+			laneTracks.add(new ArrayList<PlantTrack>());
+			avppCursors.add(new ArrayList<RegionSequence.Cursor>());
+		}
+		List<Integer> compiledPositions = new ArrayList<Integer>();
+		List<PlantTrack> compiledTracks = new ArrayList<PlantTrack>(); // rolling
+		List<Integer> trackPositions = new ArrayList<Integer>();
+		int concretePlants = 0;
+		Collection<PowerPlantData> children = getPowerPlants();
+		for (PowerPlantData pd : children) {
 			if (pd.isAVPP()) {
-				avpps.add(pd);
+				for (int lane = 0; lane < lanes; ++lane) {
+					RegionSequence avppSequence = laneSequences == null ? null
+							: laneSequences.get(lane).get(pd);
+					if (avppSequence == null)
+						avppSequence = pd.getRegionSequence();
+					avppCursors.get(lane).add((avppSequence == null ? RegionSequence
+							.empty() : avppSequence).cursor());
+				}
+				avppGeneralRegions.add(IntervalSet.of(pd.getFeasibleRegions()));
+				continue;
+			}
+			PowerPlantState[] initial = new PowerPlantState[lanes];
+			boolean[] exact = new boolean[lanes];
+			// compiled only if it compiles in every lane
+			boolean compile = useCompiledConstraints;
+			for (int lane = 0; lane < lanes; ++lane) {
+				initial[lane] = single ? null : laneStates.get(lane).get(pd);
+				if (initial[lane] == null) {
+					initial[lane] = new PowerPlantState();
+					initial[lane].setData(pd);
+					initial[lane].initialize(); // take init values from data
+				}
+				exact[lane] = exactStopTimes
+						&& ReachableStateSet.isApplicable(initial[lane]);
+				compile = compile && !exact[lane]
+						&& ConstraintKernel.isCompilable(initial[lane]);
+			}
+			int position = concretePlants++;
+			PlantTrack track = keepTracks ? reanchor(pd, initial[0], exact[0])
+					: null;
+			if (track != null) {
+				laneTracks.get(0).add(track);
+				trackPositions.add(position);
+				continue;
+			}
+			recomputedPlants += lanes;
+			if (compile) {
+				for (int lane = 0; lane < lanes; ++lane)
+					compiledStates.get(lane).add(initial[lane]);
+				compiledPositions.add(position);
+				if (keepTracks) {
+					track = new PlantTrack(initial[0], false);
+					tracks.put(pd, track);
+					compiledTracks.add(track);
+				}
 			} else {
-				PowerPlantState newPlant = new PowerPlantState();
-				newPlant.setData(pd);
-				newPlant.initialize(); // take init values from data
-				newPlant.updateConstraints();
-				plantStates.add(newPlant);
+				for (int lane = 0; lane < lanes; ++lane) {
+					track = new PlantTrack(initial[lane], exact[lane]);
+					laneTracks.get(lane).add(track);
+				}
+				if (keepTracks)
+					tracks.put(pd, track);
+				trackPositions.add(position);
 			}
 		}
+		ConstraintKernel kernel = null;
+		if (!compiledPositions.isEmpty())
+			kernel = ConstraintKernel.forLanes(compiledStates,
+					toArray(compiledPositions), delta);
+		int[] positions = toArray(trackPositions);
+		if (single)
+			horizonSaturationStep = -1;
 
-		boolean reachHorizon = false; // all possible states can be reached
-		for (int t = 1; t <= T && !reachHorizon; ++t) {
+		List<RegionSequence.Builder> sequences = new ArrayList<RegionSequence.Builder>(
+				lanes);
+		MinkowskiSumTree[] sumTrees = new MinkowskiSumTree[lanes];
+		boolean[] done = new boolean[lanes];
+		for (int lane = 0; lane < lanes; ++lane)
+			sequences.add(new RegionSequence.Builder());
+		int active = lanes;
+		for (int t = 1; t <= T && active > 0; ++t) {
 			// System.out.println("* --------------------- t = " + t +
 			// " ------------------- ");
-			Collection<Collection<Interval<Double>>> plantIntervalsList = new ArrayList<Collection<Interval<Double>>>();
-
-			for (PowerPlantState pp : plantStates) {
-				pp.setSimulationStep(t);
-				// start with initial values for P_(t+1)
-				double P_min_t_inc = -(Double.MAX_VALUE - 1);
-				double P_max_t_inc = Double.MAX_VALUE;
-
-				// same for On_(t+1)
-				boolean On_min_t_inc = false;
-				boolean On_max_t_inc = true;
-				// System.out.println("Looking at: " + pp.getName());
-
-				for (Constraint c : pp.getData().getAssociatedConstraints()) {
-					if (!c.isSoft()) {
-						// minimize step
-						P_min_t_inc = Math.max(c.minimize(), P_min_t_inc);
-						// none may say that pp can be on - default is false!
-						On_min_t_inc = c.minimizeBool() || On_min_t_inc;
-	
-						// maximize step
-						P_max_t_inc = Math.min(c.maximize(), P_max_t_inc);
-						// all have to allow pp to be on - default is true
-						On_max_t_inc = c.maximizeBool() && On_max_t_inc;
-					}
+			IntervalSet[][] laneSets = new IntervalSet[lanes][concretePlants];
+			if (kernel != null) {
+				kernel.step(laneSets);
+				if (keepTracks)
+					record(kernel, compiledTracks, compiledPositions,
+							laneSets[0], t);
+			}
+			for (int lane = 0; lane < lanes; ++lane) {
+				if (done[lane])
+					continue;
+				List<RegionSequence.Cursor> cursors = avppCursors.get(lane);
+				List<IntervalSet> avppSets = new ArrayList<IntervalSet>(
+						cursors.size());
+				for (int a = 0; a < cursors.size(); ++a) {
+					RegionSequence.Cursor cursor = cursors.get(a);
+					// converged AVPPs use their general abstraction
+					avppSets.add(cursor.hasNext() ? cursor.next()
+							: avppGeneralRegions.get(a));
 				}
+				List<PlantTrack> plantTracks = laneTracks.get(lane);
+				if (propagationExecutor == null) {
+					for (int i = 0; i < plantTracks.size(); ++i)
+						laneSets[lane][positions[i]] = plantTracks.get(i)
+								.get(t);
+				} else {
+					propagateConcurrently(plantTracks, positions, t,
+							laneSets[lane]);
+				}
+				List<IntervalSet> plantSets = new ArrayList<IntervalSet>(
+						children.size());
+				plantSets.addAll(Arrays.asList(laneSets[lane]));
+				plantSets.addAll(avppSets);
 
-				pp.updateRunning(On_min_t_inc, On_max_t_inc);
-
-				// System.out.println("------------ "+pp.getPower().min + " / "
-				// + pp.getPower().max);
-				if (!On_min_t_inc)
-					P_min_t_inc = 0.0;
-				if (On_max_t_inc) {
-					P_max_t_inc = Math.max(P_max_t_inc, pp.getData()
-							.getPowerBoundaries().min);
+				IntervalSet regions;
+				if (keepTracks && hd.getResolution() == 0.0) {
+					regions = sumRolling(plantSets, t);
+				} else if (useSumTree && hd.getResolution() == 0.0) {
+					// only leaves whose intervals changed since t - 1
+					// recombine
+					if (sumTrees[lane] == null) {
+						sumTrees[lane] = new MinkowskiSumTree(plantSets);
+					} else {
+						for (int i = 0; i < plantSets.size(); ++i)
+							sumTrees[lane].set(i, plantSets.get(i));
+					}
+					regions = HoleDetection.snap(sumTrees[lane].total());
+					peakIntermediateSize = Math.max(peakIntermediateSize,
+							regions.size());
+				} else {
+					regions = detectHoles(hd, plantSets);
 				}
-				pp.getPower().min = P_min_t_inc;
-				pp.getPower().max = P_max_t_inc;
-
-				// intervals to add
-				double add_int_min = Math.max(P_min_t_inc, pp.getData()
-						.getPowerBoundaries().min);
-				double add_int_max = Math.max(P_max_t_inc, pp.getData()
-						.getPowerBoundaries().min + delta);
-				// System.out.println("------------ "+add_int_min + " / " +
-				// add_int_max);
-
-				Interval<Double> addInt = new Interval<Double>(add_int_min,
-						add_int_max);
-				Collection<Interval<Double>> setIntervals = new ArrayList<Interval<Double>>();
-				if (pp.onOrOff() || pp.onlyOff()) {
-					setIntervals.add(PowerPlantUtil.getZero());
+				regions = compact(regions);
+				// System.out.println("#### Feasible regions after t = "+t);
+				RegionSequence.Builder sequence = sequences.get(lane);
+				sequence.add(prune(regions, t));
+
+				// all possible states can be reached
+				done[lane] = isConverged(hd, regions, generalRegions, t);
+				if (!done[lane] && kernel != null && plantTracks.isEmpty()
+						&& kernel.isSaturated(lane)
+						&& avppsSettled(cursors, t)) {
+					// all children repeat their intervals from now on
+					if (single)
+						horizonSaturationStep = t;
+					for (int s = t + 1; s <= T; ++s)
+						sequence.add(prune(regions, s));
+					done[lane] = true;
 				}
-				if (!pp.onlyOff()) {
-					setIntervals.add(addInt);
+				if (done[lane])
+					--active;
+			}
+		}
+
+		if (single) {
+			saturationSteps = new IdentityHashMap<PowerPlantData, Integer>();
+			for (int i = 0; kernel != null && i < kernel.size(); ++i) {
+				if (kernel.getSaturationStep(i) >= 0)
+					saturationSteps.put(compiledStates.get(0).get(i)
+							.getData(), kernel.getSaturationStep(i));
+			}
+		}
+		List<RegionSequence> results = new ArrayList<RegionSequence>(lanes);
+		for (RegionSequence.Builder sequence : sequences)
+			results.add(sequence.build());
+		return results;
+	}
+
+	/**
+	 * Rolling mode: the tree of step t was built for step t + 1 of the last
+	 * call, only children whose intervals changed recombine
+	 */
+	private IntervalSet sumRolling(List<IntervalSet> plantSets, int t) {
+		MinkowskiSumTree stepTree = t <= stepTrees.size() ? stepTrees
+				.get(t - 1) : null;
+		if (stepTree == null || stepTree.size() != plantSets.size()) {
+			stepTree = new MinkowskiSumTree(plantSets);
+			if (t <= stepTrees.size())
+				stepTrees.set(t - 1, stepTree);
+			else
+				stepTrees.add(stepTree);
+		} else {
+			for (int i = 0; i < plantSets.size(); ++i)
+				stepTree.set(i, plantSets.get(i));
+		}
+		return HoleDetection.snap(stepTree.total());
+	}
+
+	/**
+	 * Clips the regions of step t to the target envelope; convergence and
+	 * saturation are decided on the regions before
+	 */
+	private IntervalSet prune(IntervalSet regions, int t) {
+		if (targetLower == null || t > targetLower.length)
+			return regions;
+		IntervalSet pruned = regions.clip(targetLower[t - 1],
+				targetUpper[t - 1]);
+		prunedIntervals += regions.size() - pruned.size();
+		return pruned;
+	}
+
+	/**
+	 * Quantized runs compare against the general regions exactly
+	 */
+	private QuantizedIntervalSet quantizeGeneralRegions(HoleDetection hd) {
+		if (hd.getResolution() > 0.0 && getFeasibleRegions() != null) {
+			return QuantizedIntervalSet.quantize(
+					IntervalSet.of(getFeasibleRegions()), hd.getResolution());
+		}
+		return null;
+	}
+
+	private IntervalSet detectHoles(HoleDetection hd, List<IntervalSet> plantSets) {
+		hd.detectHoles(plantSets);
+		peakIntermediateSize = Math.max(peakIntermediateSize,
+				hd.getPeakIntermediateSize());
+		return hd.getRegions();
+	}
+
+	/**
+	 * Whether the regions of a step, just computed by hd and compacted like
+	 * the general ones, equal them
+	 */
+	private boolean isConverged(HoleDetection hd, IntervalSet regions,
+			QuantizedIntervalSet generalRegions) {
+		if (hd.getResolution() > 0.0) {
+			if (generalRegions == null)
+				return false;
+			// compacted regions are still multiples of the resolution
+			return generalRegions.equals(regions == hd.getRegions() ? hd
+					.getQuantizedRegions() : QuantizedIntervalSet.quantize(
+					regions, hd.getResolution()));
+		}
+		return PowerPlantUtil.checkConvergence(regions.toSortedSet(),
+				getFeasibleRegions());
+	}
+
+	/**
+	 * Like isConverged, but with a target envelope the regions of step t also
+	 * converge if they equal the general regions within the envelope: AVPP
+	 * children report their steps clipped to their own envelopes, so the sum
+	 * never reaches the unclipped general regions
+	 */
+	private boolean isConverged(HoleDetection hd, IntervalSet regions,
+			QuantizedIntervalSet generalRegions, int t) {
+		if (isConverged(hd, regions, generalRegions))
+			return true;
+		if (targetLower == null || t > targetLower.length
+				|| getFeasibleRegions() == null)
+			return false;
+		double lo = targetLower[t - 1], hi = targetUpper[t - 1];
+		IntervalSet clipped = regions.clip(lo, hi);
+		IntervalSet general = IntervalSet.of(getFeasibleRegions()).clip(lo, hi);
+		if (hd.getResolution() > 0.0) {
+			return QuantizedIntervalSet.quantize(general, hd.getResolution())
+					.equals(QuantizedIntervalSet.quantize(clipped,
+							hd.getResolution()));
+		}
+		return PowerPlantUtil.checkConvergence(clipped.toSortedSet(),
+				general.toSortedSet());
+	}
+
+	/**
+	 * Whether all AVPPs used their general regions in step t and hence will
+	 * do so in all later steps
+	 */
+	private static boolean avppsSettled(List<RegionSequence.Cursor> cursors,
+			int t) {
+		for (RegionSequence.Cursor cursor : cursors) {
+			if (cursor.position() >= t)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Reachable power of a single plant in step t, advances its state by one
+	 * step
+	 * 
+	 * @param pp
+	 * @param t
+	 * @return
+	 */
+	private IntervalSet advance(PowerPlantState pp, int t) {
+		pp.setSimulationStep(t);
+		// start with initial values for P_(t+1)
+		double P_min_t_inc = -(Double.MAX_VALUE - 1);
+		double P_max_t_inc = Double.MAX_VALUE;
+
+		// same for On_(t+1)
+		boolean On_min_t_inc = false;
+		boolean On_max_t_inc = true;
+		// System.out.println("Looking at: " + pp.getName());
+
+		for (Constraint c : pp.getData().getAssociatedConstraints()) {
+			if (!c.isSoft()) {
+				// minimize step
+				P_min_t_inc = Math.max(c.minimize(pp), P_min_t_inc);
+				// none may say that pp can be on - default is false!
+				On_min_t_inc = c.minimizeBool(pp) || On_min_t_inc;
+
+				// maximize step
+				P_max_t_inc = Math.min(c.maximize(pp), P_max_t_inc);
+				// all have to allow pp to be on - default is true
+				On_max_t_inc = c.maximizeBool(pp) && On_max_t_inc;
+			}
+		}
+
+		pp.updateRunning(On_min_t_inc, On_max_t_inc);
+
+		// System.out.println("------------ "+pp.getPower().min + " / "
+		// + pp.getPower().max);
+		if (!On_min_t_inc)
+			P_min_t_inc = 0.0;
+		if (On_max_t_inc) {
+			P_max_t_inc = Math.max(P_max_t_inc, pp.getData()
+					.getPowerBoundaries().min);
+		}
+		pp.getPower().min = P_min_t_inc;
+		pp.getPower().max = P_max_t_inc;
+
+		// intervals to add
+		double add_int_min = Math.max(P_min_t_inc, pp.getData()
+				.getPowerBoundaries().min);
+		double add_int_max = Math.max(P_max_t_inc, pp.getData()
+				.getPowerBoundaries().min + delta);
+		// System.out.println("------------ "+add_int_min + " / " +
+		// add_int_max);
+
+		// System.out.println(pp.printState());
+		if (pp.onlyOff()) {
+			return IntervalSet.point(0.0);
+		} else if (pp.onOrOff()) {
+			return IntervalSet.fromBounds(new double[] { 0.0, 0.0,
+					add_int_min, add_int_max });
+		} else {
+			return IntervalSet.of(add_int_min, add_int_max);
+		}
+	}
+
+	/**
+	 * Advances all plants to step t in chunks on the propagation executor;
+	 * plants are independent within a step
+	 * 
+	 * @param plantTracks
+	 * @param positions
+	 *            of the tracks in stepSets
+	 * @param t
+	 * @param stepSets
+	 *            receives the intervals in plant order
+	 */
+	private void propagateConcurrently(final List<PlantTrack> plantTracks,
+			final int[] positions, final int t, final IntervalSet[] stepSets) {
+		List<Callable<Void>> chunks = new ArrayList<Callable<Void>>();
+		for (int start = 0; start < positions.length; start += PROPAGATION_CHUNK) {
+			final int from = start;
+			final int to = Math.min(start + PROPAGATION_CHUNK, positions.length);
+			chunks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					for (int i = from; i < to; ++i)
+						stepSets[positions[i]] = plantTracks.get(i).get(t);
+					return null;
 				}
-				plantIntervalsList.add(setIntervals);
+			});
+		}
+		try {
+			for (Future<Void> chunk : propagationExecutor.invokeAll(chunks))
+				chunk.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while propagating plant states", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	private static int[] toArray(List<Integer> values) {
+		int[] array = new int[values.size()];
+		for (int i = 0; i < array.length; ++i)
+			array[i] = values.get(i);
+		return array;
+	}
 
-				// System.out.println(pp.printState());
+	/**
+	 * Rolling mode: keeps the reachable intervals of a plant if its observed
+	 * initial state did not change, and shifts them by one step if the plant
+	 * ended up in exactly the state that was predicted for step 1
+	 * 
+	 * @param pd
+	 * @param observed
+	 * @param exact
+	 *            whether to track all discrete states, see ReachableStateSet
+	 * @return null if the intervals have to be recomputed
+	 */
+	private PlantTrack reanchor(PowerPlantData pd, PowerPlantState observed,
+			boolean exact) {
+		PlantTrack track = tracks.get(pd);
+		if (track != null && (track.reachable != null) == exact) {
+			if (sameState(track.anchor, observed))
+				return track;
+			if (!exact && !track.states.isEmpty()
+					&& track.states.get(0) != null
+					&& isPoint(track.states.get(0))
+					&& sameState(track.states.get(0), observed)) {
+				track.anchor = observed;
+				track.states.remove(0);
+				track.sets.remove(0);
+				return track;
 			}
+		}
+		return null;
+	}
+
+	/**
+	 * Stores step t of the compiled plants in their tracks for the next call
+	 * in rolling mode; saturated plants only repeat their set
+	 */
+	private static void record(ConstraintKernel kernel,
+			List<PlantTrack> compiledTracks, List<Integer> compiledPositions,
+			IntervalSet[] stepSets, int t) {
+		for (int i = 0; i < compiledTracks.size(); ++i) {
+			int saturation = kernel.getSaturationStep(i);
+			compiledTracks.get(i).record(
+					stepSets[compiledPositions.get(i)],
+					saturation >= 0 && saturation < t ? null : kernel
+							.getStates().toState(i));
+		}
+	}
+
+	private static boolean sameState(PowerPlantState s1, PowerPlantState s2) {
+		return same(s1.getPower(), s2.getPower())
+				&& same(s1.isRunning(), s2.isRunning())
+				&& same(s1.getConsRunning(), s2.getConsRunning())
+				&& same(s1.getConsStopping(), s2.getConsStopping());
+	}
+
+	private static boolean same(Interval<?> i1, Interval<?> i2) {
+		return i1 == null ? i2 == null : i1.equals(i2);
+	}
+
+	private static boolean isPoint(PowerPlantState state) {
+		return isPoint(state.getPower()) && isPoint(state.isRunning())
+				&& isPoint(state.getConsRunning())
+				&& isPoint(state.getConsStopping());
+	}
+
+	private static boolean isPoint(Interval<?> interval) {
+		return interval == null || interval.min.equals(interval.max);
+	}
+
+	/**
+	 * Reachable intervals of a plant from one observed initial state,
+	 * computed lazily up to the step asked for
+	 */
+	private class PlantTrack {
+		private PowerPlantState anchor; // observed initial state
+		private PowerPlantState state; // after the last computed step, null if saturated
+		private final List<PowerPlantState> states = new ArrayList<PowerPlantState>(); // null after saturation
+		private final List<IntervalSet> sets = new ArrayList<IntervalSet>();
+		private final ReachableStateSet reachable; // null for interval states
+
+		PlantTrack(PowerPlantState observed, boolean exact) {
+			anchor = observed;
+			state = observed.copy();
+			reachable = exact ? new ReachableStateSet(observed, delta) : null;
+		}
 
-			for (PowerPlantData avpp : avpps) {
-				List<SortedSet<Interval<Double>>> avppRegions = avpp
-						.getAllFeasibleRegions();
-				int index = t - 1;
-
-				if (avppRegions.size() > index) {
-					Collection<Interval<Double>> timeRegions = avppRegions
-							.get(index);
-					plantIntervalsList.add(timeRegions);
-				} else { // converged, use general abstraction
-					plantIntervalsList.add(avpp.getFeasibleRegions());
+		IntervalSet get(int t) {
+			while (sets.size() < t) {
+				if (reachable != null) {
+					sets.add(reachable.step(sets.size() + 1));
+				} else if (state == null) {
+					sets.add(sets.get(sets.size() - 1));
+					states.add(null);
+				} else {
+					if (!states.isEmpty()
+							&& state == states.get(states.size() - 1))
+						state = state.copy(); // recorded from the kernel
+					sets.add(advance(state, sets.size() + 1));
+					states.add(state.copy());
 				}
 			}
+			return sets.get(t - 1);
+		}
+
+		/**
+		 * Appends a step computed by the kernel
+		 * 
+		 * @param set
+		 * @param after
+		 *            state after the step, null once the plant saturated
+		 */
+		void record(IntervalSet set, PowerPlantState after) {
+			sets.add(set);
+			states.add(after);
+			state = after;
+		}
+	}
+
+	public boolean isUseCompiledConstraints() {
+		return useCompiledConstraints;
+	}
+
+	/**
+	 * Propagates plants whose constraints compile (see ConstraintKernel) in a
+	 * tight loop over primitive arrays instead of calling each constraint;
+	 * results are the same. In rolling mode, compilable plants that have to be
+	 * recomputed are compiled and their steps kept for the next call.
+	 * 
+	 * @param useCompiledConstraints
+	 */
+	public void setUseCompiledConstraints(boolean useCompiledConstraints) {
+		this.useCompiledConstraints = useCompiledConstraints;
+	}
+
+	/**
+	 * Restricts the regions of each step to the range of production that can
+	 * plausibly be asked for, e.g. a residual load forecast widened by a
+	 * margin. Regions outside are dropped and straddling ones clipped; if
+	 * nothing lies within, the closest reachable values are kept. Steps beyond
+	 * the arrays are not pruned.
+	 * 
+	 * @param lower
+	 *            lowest plausible target per step, index t - 1, null turns
+	 *            pruning off
+	 * @param upper
+	 *            highest plausible target per step
+	 */
+	public void setTargetEnvelope(double[] lower, double[] upper) {
+		if (lower != null && (upper == null || upper.length != lower.length))
+			throw new IllegalArgumentException(
+					"Target envelope needs an upper bound for each lower bound");
+		this.targetLower = lower;
+		this.targetUpper = lower == null ? null : upper;
+	}
+
+	/**
+	 * Number of intervals removed by the target envelope in the last call to
+	 * perform or performBatch
+	 * 
+	 * @return
+	 */
+	public int getPrunedIntervals() {
+		return prunedIntervals;
+	}
+
+	public boolean isExactStopTimes() {
+		return exactStopTimes;
+	}
 
-			holes = hd.detectSupplyHoles(plantIntervalsList);
-			feasibleRegions = hd.getIntervalList();
+	/**
+	 * Tracks the distinct on/off states of plants with stop time constraints
+	 * (see ReachableStateSet) instead of interval counters, which gives
+	 * tighter regions for such plants; they are neither compiled nor shifted
+	 * in rolling mode.
+	 * 
+	 * @param exactStopTimes
+	 */
+	public void setExactStopTimes(boolean exactStopTimes) {
+		this.exactStopTimes = exactStopTimes;
+		this.tracks = null;
+	}
+
+	public ExecutorService getPropagationExecutor() {
+		return propagationExecutor;
+	}
+
+	/**
+	 * Propagates the plant states of each step concurrently on the given
+	 * executor, which may be shared by several abstractions and is not shut
+	 * down here; null propagates sequentially
+	 * 
+	 * @param propagationExecutor
+	 */
+	public void setPropagationExecutor(ExecutorService propagationExecutor) {
+		this.propagationExecutor = propagationExecutor;
+	}
+
+	public boolean isRolling() {
+		return rolling;
+	}
+
+	/**
+	 * Rolling horizon: each call to perform is taken as the next simulation
+	 * step. The reachable intervals of plants whose initial state did not
+	 * change, or changed exactly as predicted, are reused, the others are
+	 * recomputed as without rolling. The sums per step only recombine
+	 * children whose intervals differ; in quantized mode the sums are
+	 * recomputed.
+	 * 
+	 * @param rolling
+	 */
+	public void setRolling(boolean rolling) {
+		this.rolling = rolling;
+		this.tracks = null;
+	}
 
-			reachHorizon = PowerPlantUtil.checkConvergence(feasibleRegions,
-					getFeasibleRegions());
-			// System.out.println("#### Feasible regions after t = "+t);
-			/*
-			 * for(Interval region : feasibleRegions) { System.out.print(region
-			 * + " , "); } System.out.println();
-			 */
-			allFeasibleRegions.add(feasibleRegions);
-			allHoles.add(holes);
+	/**
+	 * Number of plants whose reachable intervals were computed from scratch
+	 * in the last call to perform, all concrete plants unless rolling
+	 * 
+	 * @return
+	 */
+	public int getRecomputedPlants() {
+		return recomputedPlants;
+	}
+
+	/**
+	 * In rolling mode the tracks of children that remain are kept, so the
+	 * children may be set again before every call to perform
+	 */
+	@Override
+	public void setPowerPlants(Collection<PowerPlantData> powerPlants) {
+		super.setPowerPlants(powerPlants);
+		if (tracks != null) {
+			Map<PowerPlantData, PlantTrack> kept;
+			kept = new IdentityHashMap<PowerPlantData, PlantTrack>();
+			for (PowerPlantData pd : powerPlants) {
+				PlantTrack track = tracks.get(pd);
+				if (track != null)
+					kept.put(pd, track);
+			}
+			tracks = kept;
 		}
+	}
+
+	/**
+	 * Step of the last call to perform after which the reachable intervals
+	 * of a compiled plant no longer changed
+	 * 
+	 * @param pd
+	 * @return -1 if the plant did not saturate or was not compiled
+	 */
+	public int getSaturationStep(PowerPlantData pd) {
+		Integer step = saturationSteps == null ? null : saturationSteps
+				.get(pd);
+		return step == null ? -1 : step;
+	}
 
+	/**
+	 * Step of the last call to perform after which all children repeated
+	 * their intervals, so that the remaining steps were copied instead of
+	 * computed
+	 * 
+	 * @return -1 if the whole horizon was computed
+	 */
+	public int getHorizonSaturationStep() {
+		return horizonSaturationStep;
+	}
+
+	public boolean isUseSumTree() {
+		return useSumTree;
+	}
+
+	/**
+	 * Keeps the children in a segment tree of partial sums across time steps
+	 * so that only plants whose interval changed are recombined; not used in
+	 * quantized mode. The tree merges on its own, the hole detection engine
+	 * is bypassed and the peak intermediate size only covers the totals.
+	 * 
+	 * @param useSumTree
+	 */
+	public void setUseSumTree(boolean useSumTree) {
+		this.useSumTree = useSumTree;
+	}
+
+	/**
+	 * Feasible regions per step of the last call to perform, equal
+	 * consecutive steps are stored once; getAllFeasibleRegions and getAllHoles
+	 * are views of it
+	 * 
+	 * @return
+	 */
+	public RegionSequence getRegionSequence() {
+		return regionSequence;
 	}
 
 	public List<SortedSet<Interval<Double>>> getAllFeasibleRegions() {
@@ -1,82 +1,297 @@
 package de.uniaugsburg.isse.abstraction.merging;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.SortedSet;
-import java.util.TreeSet;
 
-import de.uniaugsburg.isse.abstraction.merging.MergeLists.List;
 import de.uniaugsburg.isse.abstraction.types.Interval;
-import de.uniaugsburg.isse.util.PowerPlantUtil;
+import de.uniaugsburg.isse.abstraction.types.IntervalSet;
+import de.uniaugsburg.isse.abstraction.types.QuantizedIntervalSet;
 
 /**
- * Wraps merge list internal details and performs the core of the abstraction
+ * Wraps merge internal details and performs the core of the abstraction
  * algorithm i.e. merge intervals to find feasible regions and supply holes
  * 
+ * The Minkowski sum is built plant by plant and sorted and merged after every
+ * addition so the working set never exceeds the number of disjoint regions
+ * instead of growing with the cross product of all plant intervals.
+ * 
  * @author Alexander Schiendorfer
  * 
  */
 public class HoleDetection {
+	/**
+	 * Bounds of plain double sums are rounded to multiples of 1 / SNAP_SCALE
+	 */
+	public static final double SNAP_SCALE = 1e6;
 	private SortedSet<Interval<Double>> intervalList;
+	private IntervalSet regions;
+	protected int peakIntermediateSize;
+	protected int saturationIndex = -1;
+	private boolean useSaturation = true;
+	private final MergeBuffer scratch = new MergeBuffer();
+	private double resolution; // 0 means plain doubles
+	private QuantizedIntervalSet quantizedRegions;
 
 	public SortedSet<Interval<Double>> getIntervalList() {
 		return intervalList;
 	}
 
+	/**
+	 * Feasible regions of the last detection in packed form
+	 * 
+	 * @return
+	 */
+	public IntervalSet getRegions() {
+		return regions;
+	}
+
+	/**
+	 * Largest number of disjoint intervals held by the running sum during the
+	 * last detection
+	 * 
+	 * @return
+	 */
+	public int getPeakIntermediateSize() {
+		return peakIntermediateSize;
+	}
+
+	/**
+	 * Index of the first plant that was added in closed form because the
+	 * running sum had become contiguous, -1 if the regions never saturated
+	 * 
+	 * @return
+	 */
+	public int getSaturationIndex() {
+		return saturationIndex;
+	}
+
+	public boolean isUseSaturation() {
+		return useSaturation;
+	}
+
+	public void setUseSaturation(boolean useSaturation) {
+		this.useSaturation = useSaturation;
+	}
+
+	public double getResolution() {
+		return resolution;
+	}
+
+	/**
+	 * Opt-in fixed-point mode: with a positive resolution all plant intervals
+	 * are rounded to multiples of it and summed exactly as long ticks
+	 * 
+	 * @param resolution
+	 *            power quantum, 0 to compute with plain doubles
+	 */
+	public void setResolution(double resolution) {
+		if (resolution < 0.0)
+			throw new IllegalArgumentException("Resolution must not be negative but was " + resolution);
+		this.resolution = resolution;
+	}
+
+	/**
+	 * Feasible regions of the last detection in ticks, null if not quantized
+	 * 
+	 * @return
+	 */
+	public QuantizedIntervalSet getQuantizedRegions() {
+		return quantizedRegions;
+	}
+
 	public Collection<Interval<Double>> detectSupplyHoles(
 			Collection<Collection<Interval<Double>>> plantIntervals) {
-		boolean first = true;
-		Collection<Interval<Double>> minIntervalSet = null;
-
-		// do interval merging and combining
+		List<IntervalSet> plantSets = new ArrayList<IntervalSet>(
+				plantIntervals.size());
 		for (Collection<Interval<Double>> plantIntervalSet : plantIntervals) {
-			if (first) {
-				minIntervalSet = plantIntervalSet;
-				first = false;
-			} else {
-				minIntervalSet = PowerPlantUtil.plusSets(minIntervalSet,
-						plantIntervalSet);
-			}
-			// TODO maybe simplify here
+			plantSets.add(IntervalSet.of(plantIntervalSet));
 		}
+		return detectHoles(plantSets).toSortedSet();
+	}
 
-		// print min interval set
-		/*
-		 * System.out.println("Min interval set"); for (Interval<Double> intV :
-		 * minIntervalSet) { System.out.println(intV); }
-		 * System.out.println("End min interval set");
-		 */
-		first = true;
-		List listHead = null;
-
+	/**
+	 * Packed variant of detectSupplyHoles
+	 * 
+	 * @param plantSets
+	 *            feasible intervals of every plant
+	 * @return supply holes between the resulting feasible regions
+	 */
+	public IntervalSet detectHoles(List<IntervalSet> plantSets) {
+		peakIntermediateSize = 0;
+		saturationIndex = -1;
 		// can happen to be empty during bootstrapping
-		if (minIntervalSet != null && !minIntervalSet.isEmpty()) {
-			for (Interval<Double> resultingIntervals : minIntervalSet) {
-				// System.out.println("Merging in ... " + resultingIntervals);
-				if (first) {
-					listHead = new List(resultingIntervals, null);
-					first = false;
-				} else {
-					listHead = List.mergeIn(listHead, resultingIntervals);
-				}
-				// MergeLists.printList(listHead);
+		quantizedRegions = null;
+		if (plantSets.isEmpty()) {
+			regions = IntervalSet.empty();
+		} else if (resolution > 0.0) {
+			quantizedRegions = sumQuantized(plantSets);
+			regions = quantizedRegions.toIntervalSet();
+		} else {
+			regions = snap(sum(plantSets));
+		}
+		intervalList = regions.toSortedSet();
+		return regions.holes();
+	}
+
+	/**
+	 * Folds all plant sets into their Minkowski sum, merging after each plant.
+	 * 
+	 * The fold saturates once the last region [a, b] of the running sum is at
+	 * least as wide as the largest gap of every remaining plant: adding such a
+	 * plant leaves the tail contiguous. If in addition every remaining plant
+	 * starts with a single point l (e.g. {0} for plants that can be off) and
+	 * its next interval starts at least a - lower bound above l (the largest
+	 * P_min never falls below the tail), the regions below a are only shifted.
+	 * The rest of the fold is then a linear scan over the plant bounds.
+	 * 
+	 * @param plantSets
+	 *            non empty list of plant intervals
+	 * @return merged feasible regions
+	 */
+	protected IntervalSet sum(List<IntervalSet> plantSets) {
+		saturationIndex = -1;
+		peakIntermediateSize = 0;
+		return fold(plantSets, 0, plantSets.size(), scratch);
+	}
+
+	/**
+	 * Sequential fold over the plants from index from (inclusive) to to
+	 * (exclusive), saturating as described for sum
+	 * 
+	 * @param buffer
+	 *            scratch space of the calling thread
+	 */
+	protected IntervalSet fold(List<IntervalSet> plantSets, int from, int to,
+			MergeBuffer buffer) {
+		// suffix aggregates over all plants from index i on
+		int n = to - from;
+		double[] remainingGaps = new double[n + 1];
+		double[] remainingOffsets = new double[n + 1];
+		boolean[] remainingPointStarts = new boolean[n + 1];
+		remainingOffsets[n] = Double.POSITIVE_INFINITY;
+		remainingPointStarts[n] = true;
+		for (int i = n - 1; i >= 0; --i) {
+			IntervalSet plantSet = plantSets.get(from + i);
+			remainingGaps[i] = Math.max(remainingGaps[i + 1],
+					plantSet.getMaxGap());
+			remainingPointStarts[i] = remainingPointStarts[i + 1]
+					&& isPointStart(plantSet);
+			remainingOffsets[i] = Math.min(remainingOffsets[i + 1],
+					getOffset(plantSet));
+		}
+
+		IntervalSet running = plantSets.get(from);
+		reportPeak(running.size());
+		for (int i = 1; i < n; ++i) {
+			if (useSaturation && isSaturated(running, remainingGaps[i],
+					remainingPointStarts[i], remainingOffsets[i])) {
+				reportSaturation(from + i);
+				return sumSaturated(running, plantSets.subList(from + i, to));
 			}
-			intervalList = MergeLists.toJavaSet(listHead);
-
-			// collect holes
-			Collection<Interval<Double>> holes = new TreeSet<Interval<Double>>();
-			if (listHead.size() > 1) {
-				List curr = listHead;
-				while (curr.getNext() != null) {
-					holes.add(new Interval<Double>(curr.getInterval().max, curr
-							.getNext().getInterval().min));
-					curr = curr.getNext();
-				}
+			running = buffer.sum(running, plantSets.get(from + i));
+			reportPeak(running.size());
+		}
+		return running;
+	}
+
+	/**
+	 * Rounds all bounds to multiples of 1 / SNAP_SCALE and merges intervals
+	 * that touch afterwards. Rounding errors of the additions depend on the
+	 * order in which plants are summed; snapped they neither shift bounds nor
+	 * open holes a few ulps wide, so any grouping of the sum gives the same
+	 * regions.
+	 */
+	public static IntervalSet snap(IntervalSet sum) {
+		double[] bounds = sum.toArray();
+		for (int i = 0; i < bounds.length; ++i)
+			bounds[i] = Math.rint(bounds[i] * SNAP_SCALE) / SNAP_SCALE;
+		return IntervalSet.fromBounds(bounds);
+	}
+
+	protected void reportPeak(int size) {
+		peakIntermediateSize = Math.max(peakIntermediateSize, size);
+	}
+
+	/**
+	 * Keeps the lowest index from which plants were added in closed form
+	 */
+	protected void reportSaturation(int index) {
+		if (saturationIndex < 0 || index < saturationIndex)
+			saturationIndex = index;
+	}
+
+	/**
+	 * Whether adding plantSet, which may itself be a partial sum, to a running
+	 * sum can be done in closed form by sumSaturated
+	 */
+	protected boolean isSaturated(IntervalSet running, IntervalSet plantSet) {
+		return isSaturated(running, plantSet.getMaxGap(),
+				isPointStart(plantSet), getOffset(plantSet));
+	}
+
+	private static boolean isPointStart(IntervalSet plantSet) {
+		return plantSet.isEmpty() || plantSet.getMin(0) == plantSet.getMax(0);
+	}
+
+	private static double getOffset(IntervalSet plantSet) {
+		return plantSet.size() > 1 ? plantSet.getMin(1) - plantSet.getMin(0)
+				: Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Exact fold over the quantized plant sets
+	 * 
+	 * @param plantSets
+	 *            non empty list of plant intervals
+	 * @return merged feasible regions in ticks
+	 */
+	protected QuantizedIntervalSet sumQuantized(List<IntervalSet> plantSets) {
+		QuantizedIntervalSet running = QuantizedIntervalSet.quantize(
+				plantSets.get(0), resolution);
+		peakIntermediateSize = running.size();
+		for (int i = 1; i < plantSets.size(); ++i) {
+			running = running.plus(QuantizedIntervalSet.quantize(
+					plantSets.get(i), resolution));
+			peakIntermediateSize = Math.max(peakIntermediateSize,
+					running.size());
+		}
+		return running;
+	}
+
+	private boolean isSaturated(IntervalSet running, double maxGap,
+			boolean pointStarts, double minOffset) {
+		if (running.isEmpty())
+			return false;
+		int last = running.size() - 1;
+		double a = running.getMin(last);
+		if (running.getMax(last) - a < maxGap)
+			return false;
+		if (last == 0) // contiguous already
+			return true;
+		return pointStarts && minOffset >= a - running.getLowerBound();
+	}
+
+	/**
+	 * Closed form for a saturated running sum: the regions below the tail are
+	 * shifted by the lowest point of each plant, the tail grows by the plant
+	 * bounds
+	 */
+	protected IntervalSet sumSaturated(IntervalSet running,
+			List<IntervalSet> remaining) {
+		double[] bounds = running.toArray();
+		int last = bounds.length - 2;
+		for (IntervalSet plantSet : remaining) {
+			if (plantSet.isEmpty())
+				return IntervalSet.empty();
+			double shift = plantSet.getLowerBound();
+			if (shift != 0.0) {
+				for (int i = 0; i <= last; ++i)
+					bounds[i] += shift;
 			}
-			return holes;
-		} else {
-			intervalList = new TreeSet<Interval<Double>>(); // empty set
-															// suffices
-			return new TreeSet<Interval<Double>>(); //
+			bounds[last + 1] += plantSet.getUpperBound();
 		}
+		return IntervalSet.fromBounds(bounds);
 	}
 }
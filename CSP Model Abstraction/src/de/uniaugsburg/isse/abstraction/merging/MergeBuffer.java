@@ -0,0 +1,200 @@
+package de.uniaugsburg.isse.abstraction.merging;
+
+import java.util.Arrays;
+import java.util.SortedSet;
+
+import de.uniaugsburg.isse.abstraction.types.Interval;
+import de.uniaugsburg.isse.abstraction.types.IntervalSet;
+
+/**
+ * Array backed sorted list of disjoint intervals for the hole detection
+ * algorithm. Intervals stay packed as alternating bounds in one growable
+ * double array.
+ *
+ * Two modes are supported: mergeIn inserts a single interval at its binary
+ * searched position and coalesces overlapping neighbours in place; add only
+ * appends candidates which are then sorted and merged in one linear pass on
+ * the next read (bulk mode). Overlapping or touching intervals are merged.
+ *
+ */
+public class MergeBuffer {
+	private double[] bounds;
+	private int size;
+	private boolean pending; // unsorted candidates were appended
+
+	public MergeBuffer() {
+		this(16);
+	}
+
+	public MergeBuffer(int capacity) {
+		bounds = new double[2 * Math.max(capacity, 1)];
+	}
+
+	public MergeBuffer(IntervalSet initial) {
+		this(initial.size());
+		addAll(initial);
+	}
+
+	public static MergeBuffer zero() {
+		MergeBuffer buffer = new MergeBuffer();
+		buffer.mergeIn(0.0, 0.0);
+		return buffer;
+	}
+
+	public void clear() {
+		size = 0;
+		pending = false;
+	}
+
+	public int size() {
+		flush();
+		return size;
+	}
+
+	public double getMin(int index) {
+		flush();
+		return bounds[2 * index];
+	}
+
+	public double getMax(int index) {
+		flush();
+		return bounds[2 * index + 1];
+	}
+
+	public void mergeIn(Interval<Double> interval) {
+		mergeIn(interval.min, interval.max);
+	}
+
+	/**
+	 * Inserts a single interval, merging it with all intervals it overlaps or
+	 * touches
+	 *
+	 * @param min
+	 * @param max
+	 */
+	public void mergeIn(double min, double max) {
+		flush();
+		// first interval that ends at or after min
+		int first = searchMax(min);
+		// last interval that starts at or before max
+		int last = searchMin(max);
+
+		if (last < first) { // no overlap, insert at first
+			ensureCapacity(size + 1);
+			System.arraycopy(bounds, 2 * first, bounds, 2 * first + 2, 2 * (size - first));
+			bounds[2 * first] = min;
+			bounds[2 * first + 1] = max;
+			++size;
+		} else { // expand first and close the gap to last
+			bounds[2 * first] = Math.min(bounds[2 * first], min);
+			bounds[2 * first + 1] = Math.max(bounds[2 * last + 1], max);
+			int removed = last - first;
+			if (removed > 0) {
+				System.arraycopy(bounds, 2 * (last + 1), bounds, 2 * (first + 1), 2 * (size - last - 1));
+				size -= removed;
+			}
+		}
+	}
+
+	/**
+	 * Bulk mode: appends a candidate without merging; all candidates get sorted
+	 * and merged at once before the buffer is read again
+	 *
+	 * @param min
+	 * @param max
+	 */
+	public void add(double min, double max) {
+		ensureCapacity(size + 1);
+		bounds[2 * size] = min;
+		bounds[2 * size + 1] = max;
+		++size;
+		pending = true;
+	}
+
+	public void addAll(IntervalSet intervals) {
+		ensureCapacity(size + intervals.size());
+		for (int i = 0; i < intervals.size(); ++i) {
+			bounds[2 * size] = intervals.getMin(i);
+			bounds[2 * size + 1] = intervals.getMax(i);
+			++size;
+		}
+		pending = true;
+	}
+
+	/**
+	 * Minkowski sum of two interval sets using this buffer as scratch space,
+	 * previous contents are discarded
+	 *
+	 * @param left
+	 * @param right
+	 * @return
+	 */
+	public IntervalSet sum(IntervalSet left, IntervalSet right) {
+		clear();
+		ensureCapacity(left.size() * right.size());
+		for (int i = 0; i < left.size(); ++i) {
+			double min = left.getMin(i), max = left.getMax(i);
+			for (int j = 0; j < right.size(); ++j) {
+				bounds[2 * size] = min + right.getMin(j);
+				bounds[2 * size + 1] = max + right.getMax(j);
+				++size;
+			}
+		}
+		pending = true;
+		return toIntervalSet();
+	}
+
+	/**
+	 * Sorts and merges all pending candidates in a single pass
+	 */
+	public void flush() {
+		if (pending) {
+			size = IntervalSet.coalesce(bounds, size);
+			pending = false;
+		}
+	}
+
+	public IntervalSet toIntervalSet() {
+		flush();
+		return IntervalSet.fromBounds(bounds, size);
+	}
+
+	public SortedSet<Interval<Double>> toSortedSet() {
+		return toIntervalSet().toSortedSet();
+	}
+
+	private int searchMax(double value) {
+		int lo = 0, hi = size - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if (bounds[2 * mid + 1] < value)
+				lo = mid + 1;
+			else
+				hi = mid - 1;
+		}
+		return lo;
+	}
+
+	private int searchMin(double value) {
+		int lo = 0, hi = size - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if (bounds[2 * mid] <= value)
+				lo = mid + 1;
+			else
+				hi = mid - 1;
+		}
+		return hi;
+	}
+
+	private void ensureCapacity(int intervals) {
+		if (2 * intervals > bounds.length) {
+			bounds = Arrays.copyOf(bounds, Math.max(2 * intervals, 2 * bounds.length));
+		}
+	}
+
+	@Override
+	public String toString() {
+		return toIntervalSet().toString();
+	}
+}
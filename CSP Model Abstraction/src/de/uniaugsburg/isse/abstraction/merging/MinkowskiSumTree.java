@@ -0,0 +1,171 @@
+package de.uniaugsburg.isse.abstraction.merging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.uniaugsburg.isse.abstraction.types.IntervalSet;
+
+/**
+ * Balanced segment tree over the interval sets of an AVPP's children. Each
+ * inner node stores the merged Minkowski sum of its subtree, so the feasible
+ * regions at the root stay available while single leaves change with O(log n)
+ * recombinations.
+ *
+ * Children are addressed by slots that stay stable over additions and
+ * removals; removed slots hold the neutral element {0} and are reused. Changes
+ * only mark the path to the root dirty, several changes before the next call
+ * of total() share their common ancestors.
+ *
+ */
+public class MinkowskiSumTree {
+	private static final IntervalSet IDENTITY = IntervalSet.point(0.0);
+
+	private IntervalSet[] nodes; // 1 is the root, leaves start at capacity
+	private boolean[] dirty;
+	private int capacity;
+	private int used; // slots handed out so far
+	private int live;
+	private final List<Integer> freeSlots = new ArrayList<Integer>();
+	private final MergeBuffer scratch = new MergeBuffer();
+
+	public MinkowskiSumTree(List<IntervalSet> plantSets) {
+		capacity = 1;
+		while (capacity < plantSets.size())
+			capacity *= 2;
+		nodes = new IntervalSet[2 * capacity];
+		dirty = new boolean[capacity];
+		for (int i = 0; i < capacity; ++i)
+			nodes[capacity + i] = i < plantSets.size() ? plantSets.get(i) : IDENTITY;
+		Arrays.fill(dirty, 1, capacity, true);
+		used = live = plantSets.size();
+	}
+
+	/**
+	 * Number of children currently in the tree
+	 *
+	 * @return
+	 */
+	public int size() {
+		return live;
+	}
+
+	/**
+	 * Largest number of disjoint intervals held by any node, i.e. by the sum
+	 * of the children of a subtree; nodes that are recombined on the next call
+	 * of total() count with their last sums
+	 *
+	 * @return
+	 */
+	public int getPeakSize() {
+		int peak = 0;
+		for (int node = 1; node < nodes.length; ++node) {
+			if (nodes[node] != null)
+				peak = Math.max(peak, nodes[node].size());
+		}
+		return peak;
+	}
+
+	public IntervalSet get(int slot) {
+		return nodes[capacity + slot];
+	}
+
+	/**
+	 * Minkowski sum of all children, empty if there are none
+	 *
+	 * @return
+	 */
+	public IntervalSet total() {
+		if (live == 0)
+			return IntervalSet.empty();
+		return recompute(1);
+	}
+
+	/**
+	 * Replaces the interval set of a child; unchanged sets leave the tree
+	 * untouched
+	 *
+	 * @param slot
+	 *            a slot handed out and not removed since
+	 * @param plantSet
+	 */
+	public void set(int slot, IntervalSet plantSet) {
+		checkSlot(slot);
+		int leaf = capacity + slot;
+		if (nodes[leaf].equals(plantSet))
+			return;
+		nodes[leaf] = plantSet;
+		invalidate(leaf);
+	}
+
+	/**
+	 * Adds a child and returns its slot
+	 *
+	 * @param plantSet
+	 * @return
+	 */
+	public int add(IntervalSet plantSet) {
+		int slot;
+		if (!freeSlots.isEmpty()) {
+			slot = freeSlots.remove(freeSlots.size() - 1);
+		} else {
+			if (used == capacity)
+				grow();
+			slot = used++;
+		}
+		++live;
+		nodes[capacity + slot] = plantSet;
+		invalidate(capacity + slot);
+		return slot;
+	}
+
+	public void remove(int slot) {
+		checkSlot(slot);
+		nodes[capacity + slot] = IDENTITY;
+		invalidate(capacity + slot);
+		freeSlots.add(slot);
+		--live;
+	}
+
+	private void checkSlot(int slot) {
+		if (slot < 0 || slot >= used || freeSlots.contains(slot))
+			throw new IllegalArgumentException("Slot " + slot + " is not in use");
+	}
+
+	private void invalidate(int node) {
+		node >>>= 1;
+		while (node >= 1 && !dirty[node]) {
+			dirty[node] = true;
+			node >>>= 1;
+		}
+	}
+
+	private IntervalSet recompute(int node) {
+		if (node >= capacity || !dirty[node])
+			return nodes[node];
+		IntervalSet left = recompute(2 * node), right = recompute(2 * node + 1);
+		if (left == IDENTITY)
+			nodes[node] = right;
+		else if (right == IDENTITY)
+			nodes[node] = left;
+		else
+			nodes[node] = scratch.sum(left, right);
+		dirty[node] = false;
+		return nodes[node];
+	}
+
+	/**
+	 * Doubles the number of leaves; all inner nodes are combined again on the
+	 * next access which amortizes over the additions
+	 */
+	private void grow() {
+		int newCapacity = 2 * capacity;
+		IntervalSet[] newNodes = new IntervalSet[2 * newCapacity];
+		for (int i = 0; i < newCapacity; ++i)
+			newNodes[newCapacity + i] = i < capacity ? nodes[capacity + i] : IDENTITY;
+		nodes = newNodes;
+		capacity = newCapacity;
+		dirty = new boolean[capacity];
+		Arrays.fill(dirty, 1, capacity, true);
+	}
+}
@@ -0,0 +1,136 @@
+package de.uniaugsburg.isse.abstraction.merging;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import de.uniaugsburg.isse.abstraction.types.IntervalSet;
+
+/**
+ * Hole detection that exploits associativity and commutativity of the
+ * Minkowski sum: the plant list is split in halves that are summed
+ * concurrently on a fork join pool and then combined pairwise.
+ *
+ * Feasible regions and holes are bit for bit the same as for the sequential
+ * fold: the additions are grouped differently, but both round the bounds of
+ * the result to the same grid, see HoleDetection.snap. Ranges below the cutoff
+ * saturate as in the sequential fold, and two partial sums are combined in
+ * closed form if either one is saturated with respect to the other.
+ *
+ * Like HoleDetection, an instance keeps the results of its last detection and
+ * must not run several detections at once; only the work within one
+ * detection is spread over the pool. Experiment shares one instance between
+ * abstractions that run one after the other.
+ *
+ */
+public class ParallelHoleDetection extends HoleDetection {
+
+	private final ForkJoinPool pool;
+	private int sequentialCutoff;
+
+	private class SumTask extends RecursiveTask<IntervalSet> {
+		private static final long serialVersionUID = -2381745591326717201L;
+
+		private final List<IntervalSet> plantSets;
+		private final int from;
+		private final int to;
+
+		public SumTask(List<IntervalSet> plantSets, int from, int to) {
+			this.plantSets = plantSets;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected IntervalSet compute() {
+			if (to - from <= sequentialCutoff)
+				return fold(plantSets, from, to, new MergeBuffer());
+			int mid = (from + to) >>> 1;
+			SumTask left = new SumTask(plantSets, from, mid);
+			SumTask right = new SumTask(plantSets, mid, to);
+			left.fork();
+			IntervalSet rightSum = right.compute();
+			IntervalSet sum = combine(left.join(), rightSum, from, mid);
+			reportPeak(sum.size());
+			return sum;
+		}
+	}
+
+	public ParallelHoleDetection() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public ParallelHoleDetection(int parallelism) {
+		this(parallelism, 32);
+	}
+
+	/**
+	 * @param parallelism
+	 *            number of worker threads
+	 * @param sequentialCutoff
+	 *            number of plants below which a range is summed sequentially
+	 */
+	public ParallelHoleDetection(int parallelism, int sequentialCutoff) {
+		this.pool = new ForkJoinPool(parallelism);
+		setSequentialCutoff(sequentialCutoff);
+	}
+
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	public int getSequentialCutoff() {
+		return sequentialCutoff;
+	}
+
+	public void setSequentialCutoff(int sequentialCutoff) {
+		if (sequentialCutoff < 1)
+			throw new IllegalArgumentException("Sequential cutoff has to be positive but was " + sequentialCutoff);
+		this.sequentialCutoff = sequentialCutoff;
+	}
+
+	@Override
+	protected IntervalSet sum(List<IntervalSet> plantSets) {
+		if (plantSets.size() <= sequentialCutoff)
+			return super.sum(plantSets);
+		saturationIndex = -1;
+		peakIntermediateSize = 0;
+		return pool.invoke(new SumTask(plantSets, 0, plantSets.size()));
+	}
+
+	/**
+	 * Sum of the partial sums of the plants from..mid and mid..to
+	 */
+	private IntervalSet combine(IntervalSet left, IntervalSet right, int from,
+			int mid) {
+		if (isUseSaturation()) {
+			if (isSaturated(left, right)) {
+				reportSaturation(mid);
+				return sumSaturated(left, Collections.singletonList(right));
+			}
+			if (isSaturated(right, left)) {
+				reportSaturation(from);
+				return sumSaturated(right, Collections.singletonList(left));
+			}
+		}
+		return left.plus(right);
+	}
+
+	@Override
+	protected synchronized void reportPeak(int size) {
+		super.reportPeak(size);
+	}
+
+	@Override
+	protected synchronized void reportSaturation(int index) {
+		super.reportSaturation(index);
+	}
+
+	/**
+	 * Releases the worker threads, the instance must not be used afterwards
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+}
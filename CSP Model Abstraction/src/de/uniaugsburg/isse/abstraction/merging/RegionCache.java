@@ -0,0 +1,158 @@
+package de.uniaugsburg.isse.abstraction.merging;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.uniaugsburg.isse.abstraction.types.IntervalSet;
+
+/**
+ * Bounded LRU cache of hole detection results. Entries are addressed by the
+ * content of the children's interval sets, i.e. their power boundaries, their
+ * ability to be switched off and the feasible regions of nested AVPPs, together
+ * with the resolution used. The Minkowski sum does not depend on the order of
+ * the children, so neither does the key.
+ *
+ * Can be shared by several abstractions and experiment runs; all methods are
+ * synchronized.
+ *
+ */
+public class RegionCache {
+
+	/**
+	 * Stored outcome of one hole detection
+	 */
+	public static class Result {
+		private final IntervalSet regions;
+		private final int peakIntermediateSize;
+		private final int saturationIndex;
+
+		public Result(IntervalSet regions, int peakIntermediateSize, int saturationIndex) {
+			this.regions = regions;
+			this.peakIntermediateSize = peakIntermediateSize;
+			this.saturationIndex = saturationIndex;
+		}
+
+		public IntervalSet getRegions() {
+			return regions;
+		}
+
+		public int getPeakIntermediateSize() {
+			return peakIntermediateSize;
+		}
+
+		public int getSaturationIndex() {
+			return saturationIndex;
+		}
+	}
+
+	private static final Comparator<IntervalSet> CONTENT_ORDER = new Comparator<IntervalSet>() {
+		@Override
+		public int compare(IntervalSet o1, IntervalSet o2) {
+			if (o1.size() != o2.size())
+				return o1.size() < o2.size() ? -1 : 1;
+			for (int i = 0; i < o1.size(); ++i) {
+				int c = Double.compare(o1.getMin(i), o2.getMin(i));
+				if (c == 0)
+					c = Double.compare(o1.getMax(i), o2.getMax(i));
+				if (c != 0)
+					return c;
+			}
+			return 0;
+		}
+	};
+
+	/**
+	 * Fingerprint of an abstraction's input, hash code computed once
+	 */
+	private static final class Key {
+		private final IntervalSet[] plantSets;
+		private final double resolution;
+		private final int hash;
+
+		Key(List<IntervalSet> plantSets, double resolution) {
+			this.plantSets = plantSets.toArray(new IntervalSet[plantSets.size()]);
+			Arrays.sort(this.plantSets, CONTENT_ORDER);
+			this.resolution = resolution;
+			long bits = Double.doubleToLongBits(resolution);
+			this.hash = 31 * Arrays.hashCode(this.plantSets) + (int) (bits ^ (bits >>> 32));
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return hash == other.hash && resolution == other.resolution && Arrays.equals(plantSets, other.plantSets);
+		}
+	}
+
+	private final int capacity;
+	private final LinkedHashMap<Key, Result> entries;
+	private long hits;
+	private long misses;
+
+	public RegionCache(final int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Cache capacity has to be positive but was " + capacity);
+		this.capacity = capacity;
+		this.entries = new LinkedHashMap<Key, Result>(16, 0.75f, true) {
+			private static final long serialVersionUID = 2186140355726434312L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Result> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Looks up the result for the given children, counts a hit or a miss
+	 *
+	 * @param plantSets
+	 * @param resolution
+	 * @return null if not cached
+	 */
+	public synchronized Result get(List<IntervalSet> plantSets, double resolution) {
+		Result result = entries.get(new Key(plantSets, resolution));
+		if (result == null)
+			++misses;
+		else
+			++hits;
+		return result;
+	}
+
+	public synchronized void put(List<IntervalSet> plantSets, double resolution, Result result) {
+		entries.put(new Key(plantSets, resolution), result);
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		hits = misses = 0;
+	}
+}
@@ -0,0 +1,503 @@
+package de.uniaugsburg.isse.abstraction.types;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Immutable set of sorted, disjoint power intervals packed into a single double array of alternating bounds (min_0,
+ * max_0, min_1, max_1, ...). This is the primitive counterpart of SortedSet<Interval<Double>> used for feasible regions
+ * and holes; adapters convert from and to the boxed collections expected by exporters and tests.
+ *
+ * Intervals that overlap or touch are merged, i.e. [1 3] and [3 5] become [1 5] just as in the original merge lists.
+ *
+ */
+public final class IntervalSet implements Serializable {
+
+	private static final long serialVersionUID = 3182640219518874733L;
+
+	private static final IntervalSet EMPTY = new IntervalSet(new double[0], 0);
+
+	/**
+	 * alternating lower and upper bounds, only the first 2 * size entries are valid
+	 */
+	private final double[] bounds;
+	private final int size;
+
+	private IntervalSet(double[] bounds, int size) {
+		this.bounds = bounds;
+		this.size = size;
+	}
+
+	public static IntervalSet empty() {
+		return EMPTY;
+	}
+
+	public static IntervalSet of(double min, double max) {
+		return new IntervalSet(new double[] { min, max }, 1);
+	}
+
+	public static IntervalSet point(double value) {
+		return of(value, value);
+	}
+
+	/**
+	 * Creates a set from bounds in arbitrary order; the array is copied, sorted and merged
+	 *
+	 * @param bounds
+	 *            alternating lower and upper bounds
+	 * @return
+	 */
+	public static IntervalSet fromBounds(double[] bounds) {
+		return fromBounds(bounds, bounds.length / 2);
+	}
+
+	/**
+	 * Creates a set from the first count intervals of bounds in arbitrary order; they are copied, sorted and merged
+	 *
+	 * @param bounds
+	 *            alternating lower and upper bounds
+	 * @param count
+	 * @return
+	 */
+	public static IntervalSet fromBounds(double[] bounds, int count) {
+		double[] copy = new double[2 * count];
+		System.arraycopy(bounds, 0, copy, 0, copy.length);
+		return wrap(copy, count);
+	}
+
+	/**
+	 * Takes ownership of the first 2 * count entries of bounds without copying them; sorts and merges in place. Only
+	 * for arrays no one else holds, hence not public.
+	 *
+	 * @param bounds
+	 * @param count
+	 * @return
+	 */
+	static IntervalSet wrap(double[] bounds, int count) {
+		if (count == 0)
+			return EMPTY;
+		return new IntervalSet(bounds, coalesce(bounds, count));
+	}
+
+	/**
+	 * Adapter from the boxed representation; intervals may be unsorted and overlapping
+	 *
+	 * @param intervals
+	 * @return
+	 */
+	public static IntervalSet of(Collection<Interval<Double>> intervals) {
+		if (intervals == null || intervals.isEmpty())
+			return EMPTY;
+		double[] packed = new double[intervals.size() * 2];
+		int i = 0;
+		for (Interval<Double> interval : intervals) {
+			packed[i++] = interval.min;
+			packed[i++] = interval.max;
+		}
+		return wrap(packed, intervals.size());
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public double getMin(int index) {
+		return bounds[2 * index];
+	}
+
+	public double getMax(int index) {
+		return bounds[2 * index + 1];
+	}
+
+	/**
+	 * @return the smallest value of the set
+	 * @throws NoSuchElementException
+	 *             if the set is empty
+	 */
+	public double getLowerBound() {
+		if (size == 0)
+			throw new NoSuchElementException("Empty interval set has no lower bound");
+		return bounds[0];
+	}
+
+	/**
+	 * @return the largest value of the set
+	 * @throws NoSuchElementException
+	 *             if the set is empty
+	 */
+	public double getUpperBound() {
+		if (size == 0)
+			throw new NoSuchElementException("Empty interval set has no upper bound");
+		return bounds[2 * size - 1];
+	}
+
+	/**
+	 * Width of the widest interval - as long as other sets have no hole larger than this, adding them keeps this set
+	 * contiguous
+	 *
+	 * @return
+	 */
+	public double getMaxWidth() {
+		double width = 0.0;
+		for (int i = 0; i < size; ++i)
+			width = Math.max(width, bounds[2 * i + 1] - bounds[2 * i]);
+		return width;
+	}
+
+	/**
+	 * Width of the largest gap between two consecutive intervals, 0 for contiguous sets
+	 *
+	 * @return
+	 */
+	public double getMaxGap() {
+		double gap = 0.0;
+		for (int i = 1; i < size; ++i)
+			gap = Math.max(gap, bounds[2 * i] - bounds[2 * i - 1]);
+		return gap;
+	}
+
+	/**
+	 * Total length of all intervals
+	 *
+	 * @return
+	 */
+	public double getMeasure() {
+		double measure = 0.0;
+		for (int i = 0; i < size; ++i)
+			measure += bounds[2 * i + 1] - bounds[2 * i];
+		return measure;
+	}
+
+	public boolean contains(double value) {
+		// binary search for the last interval starting at or before value
+		int lo = 0, hi = size - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if (bounds[2 * mid] <= value)
+				lo = mid + 1;
+			else
+				hi = mid - 1;
+		}
+		return hi >= 0 && value <= bounds[2 * hi + 1];
+	}
+
+	/**
+	 * Part of the set within [lo hi]; if no value lies within, the values closest to the range from below and above are
+	 * kept as points instead, so that the set never becomes empty
+	 *
+	 * @param lo
+	 * @param hi
+	 * @return
+	 */
+	public IntervalSet clip(double lo, double hi) {
+		if (isEmpty() || (lo <= getLowerBound() && hi >= getUpperBound()))
+			return this;
+		double[] clipped = new double[2 * size];
+		int count = 0;
+		int below = -1, above = -1; // closest intervals outside the range
+		for (int i = 0; i < size; ++i) {
+			double min = Math.max(bounds[2 * i], lo), max = Math.min(bounds[2 * i + 1], hi);
+			if (min <= max) {
+				clipped[2 * count] = min;
+				clipped[2 * count + 1] = max;
+				++count;
+			} else if (bounds[2 * i + 1] < lo) {
+				below = i;
+			} else if (above < 0) {
+				above = i;
+			}
+		}
+		if (count == 0) {
+			if (below >= 0) {
+				clipped[0] = clipped[1] = bounds[2 * below + 1];
+				++count;
+			}
+			if (above >= 0) {
+				clipped[2 * count] = clipped[2 * count + 1] = bounds[2 * above];
+				++count;
+			}
+		}
+		return new IntervalSet(clipped, count);
+	}
+
+	/**
+	 * Set union, merging overlapping intervals
+	 *
+	 * @param other
+	 * @return
+	 */
+	public IntervalSet union(IntervalSet other) {
+		if (other.isEmpty())
+			return this;
+		if (isEmpty())
+			return other;
+
+		// both are sorted, so a linear merge suffices before coalescing
+		double[] merged = new double[2 * (size + other.size)];
+		int i = 0, j = 0, k = 0;
+		while (i < size || j < other.size) {
+			if (j >= other.size || (i < size && bounds[2 * i] <= other.bounds[2 * j])) {
+				merged[k++] = bounds[2 * i];
+				merged[k++] = bounds[2 * i + 1];
+				++i;
+			} else {
+				merged[k++] = other.bounds[2 * j];
+				merged[k++] = other.bounds[2 * j + 1];
+				++j;
+			}
+		}
+		return wrap(merged, size + other.size);
+	}
+
+	/**
+	 * Minkowski sum {a + b | a in this, b in other} of two interval sets, the core operation of general abstraction
+	 *
+	 * @param other
+	 * @return
+	 */
+	public IntervalSet plus(IntervalSet other) {
+		if (isEmpty() || other.isEmpty())
+			return EMPTY;
+
+		double[] combined = new double[2 * size * other.size];
+		int k = 0;
+		for (int i = 0; i < size; ++i) {
+			double min = bounds[2 * i], max = bounds[2 * i + 1];
+			for (int j = 0; j < other.size; ++j) {
+				combined[k++] = min + other.bounds[2 * j];
+				combined[k++] = max + other.bounds[2 * j + 1];
+			}
+		}
+		return wrap(combined, size * other.size);
+	}
+
+	/**
+	 * Returns the supply holes i.e. the gaps [max_i, min_i+1] between consecutive intervals
+	 *
+	 * @return
+	 */
+	public IntervalSet holes() {
+		if (size < 2)
+			return EMPTY;
+		double[] gaps = new double[2 * (size - 1)];
+		System.arraycopy(bounds, 1, gaps, 0, gaps.length);
+		return new IntervalSet(gaps, size - 1);
+	}
+
+	/**
+	 * Lossy compaction: closes the smallest holes first until at most
+	 * maxIntervals intervals remain or closing the next hole would admit more
+	 * than powerBudget of infeasible power in total
+	 *
+	 * @param maxIntervals
+	 *            upper bound on the number of intervals, at least 1
+	 * @param powerBudget
+	 *            summed width of all closed holes, Double.POSITIVE_INFINITY for
+	 *            no limit
+	 * @return
+	 */
+	public IntervalSet closeSmallestHoles(int maxIntervals, double powerBudget) {
+		int needed = size - Math.max(maxIntervals, 1);
+		if (needed <= 0)
+			return this;
+
+		double[] widths = new double[size - 1];
+		for (int i = 0; i < widths.length; ++i)
+			widths[i] = bounds[2 * i + 2] - bounds[2 * i + 1];
+		double[] sortedWidths = Arrays.copyOf(widths, widths.length);
+		Arrays.sort(sortedWidths);
+
+		int closing = 0;
+		double admitted = 0.0;
+		while (closing < needed && admitted + sortedWidths[closing] <= powerBudget) {
+			admitted += sortedWidths[closing];
+			++closing;
+		}
+		if (closing == 0)
+			return this;
+
+		// close all holes below the threshold and as many ties as selected
+		double threshold = sortedWidths[closing - 1];
+		int ties = closing;
+		for (double width : widths) {
+			if (width < threshold)
+				--ties;
+		}
+		double[] compacted = new double[2 * (size - closing)];
+		compacted[0] = bounds[0];
+		int k = 1;
+		for (int i = 0; i < widths.length; ++i) {
+			boolean close = widths[i] < threshold || (widths[i] == threshold && ties-- > 0);
+			if (!close) {
+				compacted[k++] = bounds[2 * i + 1];
+				compacted[k++] = bounds[2 * i + 2];
+			}
+		}
+		compacted[k] = bounds[2 * size - 1];
+		return new IntervalSet(compacted, size - closing);
+	}
+
+	/**
+	 * Approximate comparison used to detect convergence of temporal abstraction
+	 *
+	 * @param other
+	 * @param eps
+	 * @return true if both sets have the same number of intervals and all bounds differ by at most eps
+	 */
+	public boolean converges(IntervalSet other, double eps) {
+		if (other == null || other.size != size)
+			return false;
+		for (int i = 0; i < 2 * size; ++i) {
+			if (Math.abs(bounds[i] - other.bounds[i]) > eps)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Adapter to the boxed representation used by CplexExporter and PowerPlantData
+	 *
+	 * @return
+	 */
+	public SortedSet<Interval<Double>> toSortedSet() {
+		SortedSet<Interval<Double>> set = new TreeSet<Interval<Double>>();
+		for (int i = 0; i < size; ++i) {
+			set.add(new Interval<Double>(bounds[2 * i], bounds[2 * i + 1]));
+		}
+		return set;
+	}
+
+	public Collection<Interval<Double>> toCollection() {
+		Collection<Interval<Double>> list = new ArrayList<Interval<Double>>(size);
+		for (int i = 0; i < size; ++i) {
+			list.add(new Interval<Double>(bounds[2 * i], bounds[2 * i + 1]));
+		}
+		return list;
+	}
+
+	public double[] toArray() {
+		double[] copy = new double[2 * size];
+		System.arraycopy(bounds, 0, copy, 0, copy.length);
+		return copy;
+	}
+
+	/**
+	 * Sorts the first count intervals of the packed array by their lower bounds and merges overlapping or touching
+	 * intervals in place. QuantizedIntervalSet has a copy on long ticks.
+	 *
+	 * @param bounds
+	 *            alternating lower and upper bounds
+	 * @param count
+	 *            number of intervals to consider
+	 * @return the number of disjoint intervals now stored at the beginning of bounds
+	 */
+	public static int coalesce(double[] bounds, int count) {
+		if (count <= 1)
+			return count;
+		sortByLowerBound(bounds, count);
+
+		int last = 0;
+		for (int i = 1; i < count; ++i) {
+			double min = bounds[2 * i], max = bounds[2 * i + 1];
+			if (min <= bounds[2 * last + 1]) { // overlaps or touches
+				if (max > bounds[2 * last + 1])
+					bounds[2 * last + 1] = max;
+			} else {
+				++last;
+				bounds[2 * last] = min;
+				bounds[2 * last + 1] = max;
+			}
+		}
+		return last + 1;
+	}
+
+	/**
+	 * Bottom-up merge sort on (min, max) pairs; skips the work entirely for already sorted input which is the common
+	 * case when sets are combined in order
+	 */
+	private static void sortByLowerBound(double[] bounds, int count) {
+		boolean sorted = true;
+		for (int i = 1; i < count && sorted; ++i) {
+			sorted = bounds[2 * i - 2] <= bounds[2 * i];
+		}
+		if (sorted)
+			return;
+
+		double[] src = bounds;
+		double[] dst = new double[2 * count];
+		for (int width = 1; width < count; width *= 2) {
+			for (int lo = 0; lo < count; lo += 2 * width) {
+				int mid = Math.min(lo + width, count), hi = Math.min(lo + 2 * width, count);
+				int i = lo, j = mid, k = lo;
+				while (i < mid && j < hi) {
+					if (src[2 * i] <= src[2 * j]) {
+						dst[2 * k] = src[2 * i];
+						dst[2 * k + 1] = src[2 * i + 1];
+						++i;
+					} else {
+						dst[2 * k] = src[2 * j];
+						dst[2 * k + 1] = src[2 * j + 1];
+						++j;
+					}
+					++k;
+				}
+				if (i < mid)
+					System.arraycopy(src, 2 * i, dst, 2 * k, 2 * (mid - i));
+				else if (j < hi)
+					System.arraycopy(src, 2 * j, dst, 2 * k, 2 * (hi - j));
+			}
+			double[] swap = src;
+			src = dst;
+			dst = swap;
+		}
+		if (src != bounds)
+			System.arraycopy(src, 0, bounds, 0, 2 * count);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = 1;
+		for (int i = 0; i < 2 * size; ++i) {
+			long bits = Double.doubleToLongBits(bounds[i]);
+			result = 31 * result + (int) (bits ^ (bits >>> 32));
+		}
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof IntervalSet))
+			return false;
+		IntervalSet other = (IntervalSet) obj;
+		if (size != other.size)
+			return false;
+		for (int i = 0; i < 2 * size; ++i) {
+			if (Double.doubleToLongBits(bounds[i]) != Double.doubleToLongBits(other.bounds[i]))
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("{");
+		for (int i = 0; i < size; ++i) {
+			if (i > 0)
+				sb.append(", ");
+			sb.append("[" + bounds[2 * i] + " " + bounds[2 * i + 1] + "]");
+		}
+		sb.append("}");
+		return sb.toString();
+	}
+}
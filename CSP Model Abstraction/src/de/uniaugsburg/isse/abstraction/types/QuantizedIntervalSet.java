@@ -0,0 +1,206 @@
+package de.uniaugsburg.isse.abstraction.types;
+
+import java.io.Serializable;
+
+/**
+ * Fixed-point counterpart of IntervalSet: power values are rounded to the
+ * nearest multiple of a resolution (e.g. 0.01 for 10 kW if plants are given in
+ * MW) and stored as long ticks. Minkowski sums, merges and comparisons are
+ * exact integer operations, so equal configurations yield equal sets and hash
+ * codes.
+ *
+ */
+public final class QuantizedIntervalSet implements Serializable {
+
+	private static final long serialVersionUID = -6152209618837004518L;
+
+	private final long[] ticks; // alternating lower and upper bounds
+	private final int size;
+	private final double resolution;
+
+	private QuantizedIntervalSet(long[] ticks, int size, double resolution) {
+		this.ticks = ticks;
+		this.size = size;
+		this.resolution = resolution;
+	}
+
+	public static QuantizedIntervalSet quantize(IntervalSet set, double resolution) {
+		if (resolution <= 0.0)
+			throw new IllegalArgumentException("Resolution has to be positive but was " + resolution);
+		long[] ticks = new long[2 * set.size()];
+		for (int i = 0; i < set.size(); ++i) {
+			ticks[2 * i] = toTicks(set.getMin(i), resolution);
+			ticks[2 * i + 1] = toTicks(set.getMax(i), resolution);
+		}
+		// rounding can make neighbouring intervals touch
+		return new QuantizedIntervalSet(ticks, coalesce(ticks, set.size()), resolution);
+	}
+
+	public static long toTicks(double value, double resolution) {
+		return Math.round(value / resolution);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public double getResolution() {
+		return resolution;
+	}
+
+	public long getMinTicks(int index) {
+		return ticks[2 * index];
+	}
+
+	public long getMaxTicks(int index) {
+		return ticks[2 * index + 1];
+	}
+
+	/**
+	 * Exact Minkowski sum; both sets need the same resolution
+	 *
+	 * @param other
+	 * @return
+	 */
+	public QuantizedIntervalSet plus(QuantizedIntervalSet other) {
+		if (other.resolution != resolution)
+			throw new IllegalArgumentException("Cannot add sets of resolution " + resolution + " and " + other.resolution);
+		if (isEmpty() || other.isEmpty())
+			return new QuantizedIntervalSet(new long[0], 0, resolution);
+
+		int count = size * other.size;
+		long[] combined = new long[2 * count];
+		int k = 0;
+		for (int i = 0; i < size; ++i) {
+			long min = ticks[2 * i], max = ticks[2 * i + 1];
+			for (int j = 0; j < other.size; ++j) {
+				combined[k++] = min + other.ticks[2 * j];
+				combined[k++] = max + other.ticks[2 * j + 1];
+			}
+		}
+		return new QuantizedIntervalSet(combined, coalesce(combined, count), resolution);
+	}
+
+	public QuantizedIntervalSet holes() {
+		if (size < 2)
+			return new QuantizedIntervalSet(new long[0], 0, resolution);
+		long[] gaps = new long[2 * (size - 1)];
+		System.arraycopy(ticks, 1, gaps, 0, gaps.length);
+		return new QuantizedIntervalSet(gaps, size - 1, resolution);
+	}
+
+	/**
+	 * Converts back to power values, i.e. multiples of the resolution
+	 *
+	 * @return
+	 */
+	public IntervalSet toIntervalSet() {
+		double[] bounds = new double[2 * size];
+		for (int i = 0; i < bounds.length; ++i)
+			bounds[i] = ticks[i] * resolution;
+		return IntervalSet.wrap(bounds, size);
+	}
+
+	/**
+	 * Sorts the first count intervals by lower bound and merges overlapping or
+	 * touching ones in place. Line for line copy of IntervalSet.coalesce on
+	 * long ticks, primitive arrays cannot share the code; fixes go to both.
+	 *
+	 * @return the number of disjoint intervals
+	 */
+	static int coalesce(long[] ticks, int count) {
+		if (count <= 1)
+			return count;
+		sortByLowerBound(ticks, count);
+
+		int last = 0;
+		for (int i = 1; i < count; ++i) {
+			long min = ticks[2 * i], max = ticks[2 * i + 1];
+			if (min <= ticks[2 * last + 1]) {
+				if (max > ticks[2 * last + 1])
+					ticks[2 * last + 1] = max;
+			} else {
+				++last;
+				ticks[2 * last] = min;
+				ticks[2 * last + 1] = max;
+			}
+		}
+		return last + 1;
+	}
+
+	/**
+	 * Bottom-up merge sort on (min, max) pairs, copy of
+	 * IntervalSet.sortByLowerBound on long ticks
+	 */
+	private static void sortByLowerBound(long[] ticks, int count) {
+		boolean sorted = true;
+		for (int i = 1; i < count && sorted; ++i)
+			sorted = ticks[2 * i - 2] <= ticks[2 * i];
+		if (sorted)
+			return;
+
+		long[] src = ticks;
+		long[] dst = new long[2 * count];
+		for (int width = 1; width < count; width *= 2) {
+			for (int lo = 0; lo < count; lo += 2 * width) {
+				int mid = Math.min(lo + width, count), hi = Math.min(lo + 2 * width, count);
+				int i = lo, j = mid, k = lo;
+				while (i < mid && j < hi) {
+					if (src[2 * i] <= src[2 * j]) {
+						dst[2 * k] = src[2 * i];
+						dst[2 * k + 1] = src[2 * i + 1];
+						++i;
+					} else {
+						dst[2 * k] = src[2 * j];
+						dst[2 * k + 1] = src[2 * j + 1];
+						++j;
+					}
+					++k;
+				}
+				if (i < mid)
+					System.arraycopy(src, 2 * i, dst, 2 * k, 2 * (mid - i));
+				else if (j < hi)
+					System.arraycopy(src, 2 * j, dst, 2 * k, 2 * (hi - j));
+			}
+			long[] swap = src;
+			src = dst;
+			dst = swap;
+		}
+		if (src != ticks)
+			System.arraycopy(src, 0, ticks, 0, 2 * count);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = 1;
+		for (int i = 0; i < 2 * size; ++i)
+			result = 31 * result + (int) (ticks[i] ^ (ticks[i] >>> 32));
+		long bits = Double.doubleToLongBits(resolution);
+		return 31 * result + (int) (bits ^ (bits >>> 32));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof QuantizedIntervalSet))
+			return false;
+		QuantizedIntervalSet other = (QuantizedIntervalSet) obj;
+		if (size != other.size || resolution != other.resolution)
+			return false;
+		for (int i = 0; i < 2 * size; ++i) {
+			if (ticks[i] != other.ticks[i])
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return toIntervalSet().toString() + " @ " + resolution;
+	}
+}
@@ -0,0 +1,232 @@
+package de.uniaugsburg.isse.abstraction.types;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+/**
+ * Immutable sequence of feasible regions per time step as found by temporal abstraction, the first entry corresponds to
+ * t = 1. Consecutive equal steps are stored once as a run, so long horizons that repeat their regions after convergence
+ * take the space of the distinct steps only.
+ *
+ * The boxed views returned by getFeasibleRegions and getHoles share one unmodifiable set per run. Parents walk the
+ * sequence with a cursor.
+ *
+ */
+public final class RegionSequence implements Serializable {
+
+	private static final long serialVersionUID = -4715420843592285306L;
+
+	private static final RegionSequence EMPTY = new RegionSequence(new IntervalSet[0], new int[0]);
+
+	private final IntervalSet[] runs;
+	private final int[] runEnds; // exclusive end step index of each run
+
+	private transient List<SortedSet<Interval<Double>>> feasibleRegions;
+	private transient List<Collection<Interval<Double>>> holes;
+
+	private RegionSequence(IntervalSet[] runs, int[] runEnds) {
+		this.runs = runs;
+		this.runEnds = runEnds;
+	}
+
+	/**
+	 * Collects the steps of a sequence in order
+	 */
+	public static final class Builder {
+		private final List<IntervalSet> runs = new ArrayList<IntervalSet>();
+		private int[] runEnds = new int[8];
+		private int length;
+
+		public Builder add(IntervalSet regions) {
+			int last = runs.size() - 1;
+			if (last >= 0 && runs.get(last).equals(regions)) {
+				++runEnds[last];
+			} else {
+				if (runs.size() == runEnds.length)
+					runEnds = Arrays.copyOf(runEnds, 2 * runEnds.length);
+				runs.add(regions);
+				runEnds[runs.size() - 1] = length + 1;
+			}
+			++length;
+			return this;
+		}
+
+		public int length() {
+			return length;
+		}
+
+		public RegionSequence build() {
+			return new RegionSequence(runs.toArray(new IntervalSet[runs.size()]), Arrays.copyOf(runEnds, runs.size()));
+		}
+	}
+
+	public static RegionSequence empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Converts the regions per step as kept in PowerPlantData
+	 *
+	 * @param allFeasibleRegions
+	 * @return
+	 */
+	public static RegionSequence of(List<? extends Collection<Interval<Double>>> allFeasibleRegions) {
+		Builder builder = new Builder();
+		for (Collection<Interval<Double>> regions : allFeasibleRegions)
+			builder.add(IntervalSet.of(regions));
+		return builder.build();
+	}
+
+	/**
+	 * @return the number of time steps
+	 */
+	public int length() {
+		return runs.length == 0 ? 0 : runEnds[runs.length - 1];
+	}
+
+	public boolean isEmpty() {
+		return runs.length == 0;
+	}
+
+	/**
+	 * @return the number of distinct consecutive steps that are stored
+	 */
+	public int getRunCount() {
+		return runs.length;
+	}
+
+	/**
+	 * Regions of time step t
+	 *
+	 * @param t
+	 *            1-based as in temporal abstraction
+	 * @return
+	 */
+	public IntervalSet get(int t) {
+		if (t < 1 || t > length())
+			throw new IndexOutOfBoundsException("Step " + t + " not in 1.." + length());
+		return runs[runOf(t - 1)];
+	}
+
+	private int runOf(int index) {
+		int run = Arrays.binarySearch(runEnds, index + 1);
+		return run >= 0 ? run : -run - 1;
+	}
+
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * Reads the steps in order without searching the runs
+	 */
+	public final class Cursor {
+		private int run;
+		private int index; // of the next step
+
+		public boolean hasNext() {
+			return run < runs.length;
+		}
+
+		/**
+		 * @return the regions of the next step
+		 */
+		public IntervalSet next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			IntervalSet regions = runs[run];
+			if (++index == runEnds[run])
+				++run;
+			return regions;
+		}
+
+		/**
+		 * @return the number of steps read so far
+		 */
+		public int position() {
+			return index;
+		}
+	}
+
+	/**
+	 * Unmodifiable view of the regions per step, equal steps share one set
+	 *
+	 * @return
+	 */
+	public List<SortedSet<Interval<Double>>> getFeasibleRegions() {
+		if (feasibleRegions == null) {
+			List<SortedSet<Interval<Double>>> shared = new ArrayList<SortedSet<Interval<Double>>>(runs.length);
+			for (IntervalSet regions : runs)
+				shared.add(Collections.unmodifiableSortedSet(regions.toSortedSet()));
+			feasibleRegions = new RunView<SortedSet<Interval<Double>>>(shared);
+		}
+		return feasibleRegions;
+	}
+
+	/**
+	 * Unmodifiable view of the holes per step, equal steps share one set
+	 *
+	 * @return
+	 */
+	public List<Collection<Interval<Double>>> getHoles() {
+		if (holes == null) {
+			List<Collection<Interval<Double>>> shared = new ArrayList<Collection<Interval<Double>>>(runs.length);
+			for (IntervalSet regions : runs)
+				shared.add(Collections.unmodifiableSortedSet(regions.holes().toSortedSet()));
+			holes = new RunView<Collection<Interval<Double>>>(shared);
+		}
+		return holes;
+	}
+
+	private class RunView<E> extends AbstractList<E> {
+		private final List<E> perRun;
+
+		RunView(List<E> perRun) {
+			this.perRun = perRun;
+		}
+
+		@Override
+		public E get(int index) {
+			if (index < 0 || index >= size())
+				throw new IndexOutOfBoundsException("Index " + index + " not in 0.." + (size() - 1));
+			return perRun.get(runOf(index));
+		}
+
+		@Override
+		public int size() {
+			return length();
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(runs) + Arrays.hashCode(runEnds);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof RegionSequence))
+			return false;
+		RegionSequence other = (RegionSequence) obj;
+		return Arrays.equals(runEnds, other.runEnds) && Arrays.equals(runs, other.runs);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int run = 0; run < runs.length; ++run) {
+			int from = run == 0 ? 1 : runEnds[run - 1] + 1;
+			sb.append(from).append("..").append(runEnds[run]).append(": ").append(runs[run]).append('\n');
+		}
+		return sb.toString();
+	}
+}
@@ -1,6 +1,7 @@
 package de.uniaugsburg.isse.constraints;
 
 import de.uniaugsburg.isse.abstraction.types.Interval;
+import de.uniaugsburg.isse.powerplants.Plant;
 import de.uniaugsburg.isse.powerplants.PowerPlantData;
 
 public class BoundsConstraint extends PlantConstraint {
@@ -16,12 +17,12 @@ public class BoundsConstraint extends PlantConstraint {
 	}
 
 	@Override
-	public double maximize() {
+	public double maximize(Plant plant) {
 		return boundaries.max;
 	}
 
 	@Override
-	public double minimize() {
+	public double minimize(Plant plant) {
 		return boundaries.min;
 	}
 
@@ -1,35 +1,42 @@
 package de.uniaugsburg.isse.constraints;
 
+import de.uniaugsburg.isse.powerplants.Plant;
+
 /**
  * Interface for the constraints included in the Java models
- * used for temporal abstraction and CPLEX file generation
+ * used for temporal abstraction and CPLEX file generation; the state of step t
+ * is passed in, so one constraint can be evaluated for several states concurrently
  * @author Alexander Schiendorfer
  *
  */
 public interface Constraint {
 	/**
 	 * Return maximal production in step t+1 given step t
+	 * @param plant state in step t
 	 * @return
 	 */
-	double maximize();
+	double maximize(Plant plant);
 	
 	/**
 	 * Return minimal production in step t+1 given step t
+	 * @param plant state in step t
 	 * @return
 	 */
-	double minimize();
+	double minimize(Plant plant);
 	
 	/**
 	 * Return maximal on/off state in step t+1 given step t
+	 * @param plant state in step t
 	 * @return
 	 */
-	boolean maximizeBool();
+	boolean maximizeBool(Plant plant);
 	
 	/**
 	 * Return minimal on/off state in step t+1 given step t
+	 * @param plant state in step t
 	 * @return
 	 */
-	boolean minimizeBool();
+	boolean minimizeBool(Plant plant);
 	
 	/**
 	 * Denote whether this constraint is a soft constraint
@@ -1,5 +1,6 @@
 package de.uniaugsburg.isse.constraints;
 
+import de.uniaugsburg.isse.powerplants.Plant;
 import de.uniaugsburg.isse.powerplants.PowerPlantData;
 import de.uniaugsburg.isse.util.PowerPlantUtil;
 
@@ -27,12 +28,12 @@ public class FixedChangeConstraint extends PlantConstraint {
 	}
 
 	@Override
-	public double maximize() {
+	public double maximize(Plant plant) {
 		return maxProductionChange + plant.getPower().max;
 	}
 
 	@Override
-	public double minimize() {
+	public double minimize(Plant plant) {
 		return plant.getPower().min - maxProductionChange;
 	}
 
@@ -1,5 +1,7 @@
 package de.uniaugsburg.isse.constraints;
 
+import de.uniaugsburg.isse.powerplants.Plant;
+
 /**
  * Constraint that obliges every power plant to be on at all times
  * 
@@ -8,12 +10,12 @@ package de.uniaugsburg.isse.constraints;
  */
 public class ForceOnConstraint extends PlantConstraint {
 	@Override
-	public boolean maximizeBool() {
+	public boolean maximizeBool(Plant plant) {
 		return true;
 	}
 
 	@Override
-	public boolean minimizeBool() {
+	public boolean minimizeBool(Plant plant) {
 		return true;
 	}
 }
@@ -1,5 +1,6 @@
 package de.uniaugsburg.isse.constraints;
 
+import de.uniaugsburg.isse.powerplants.Plant;
 import de.uniaugsburg.isse.powerplants.PowerPlantData;
 import de.uniaugsburg.isse.util.PowerPlantUtil;
 
@@ -20,9 +21,16 @@ public class GraduallyOffConstraint extends PlantConstraint {
 	 * Has to return the on status therefore inverting the condition
 	 */
 	@Override
-	public boolean minimizeBool() {
-		double p_next = (1.0 - rateOfChange) * getPlant().getPower().min;
+	public boolean minimizeBool(Plant plant) {
+		double p_next = (1.0 - rateOfChange) * plant.getPower().min;
 		return (p_next > P_min);
 	}
 
+	public double getMinPower() {
+		return P_min;
+	}
+
+	public double getRateOfChange() {
+		return rateOfChange;
+	}
 }
@@ -1,39 +1,41 @@
 package de.uniaugsburg.isse.constraints;
 
 import de.uniaugsburg.isse.powerplants.Plant;
+import de.uniaugsburg.isse.powerplants.PowerPlantData;
+
 public abstract class PlantConstraint implements Constraint {
 
-	protected Plant plant;
+	protected PowerPlantData owner; // set when added to a plant
 	private boolean soft;
 	private int weight;
 	private int id;
 	
 	
-	public Plant getPlant() {
-		return plant;
+	public PowerPlantData getOwner() {
+		return owner;
 	}
 
-	public void setPlant(Plant plant) {
-		this.plant = plant;
+	public void setOwner(PowerPlantData owner) {
+		this.owner = owner;
 	}
 	
 	@Override
-	public double maximize() {
+	public double maximize(Plant plant) {
 		return Double.MAX_VALUE;
 	}
 	
 	@Override
-	public double minimize() {
+	public double minimize(Plant plant) {
 		return -(Double.MAX_VALUE-1);
 	}
 	
 	@Override
-	public boolean maximizeBool() {
+	public boolean maximizeBool(Plant plant) {
 		return true;
 	}
 	
 	@Override
-	public boolean minimizeBool() {
+	public boolean minimizeBool(Plant plant) {
 		return false;
 	}
 		
@@ -59,7 +61,7 @@ public abstract class PlantConstraint implements Constraint {
 	
 	@Override
 	public String getIdent() {
-		return plant.getName() + this.getClass().getSimpleName() + "_"+id;
+		return owner.getName() + this.getClass().getSimpleName() + "_"+id;
 	}
 
 	public void setId(int newId) {
@@ -1,5 +1,6 @@
 package de.uniaugsburg.isse.constraints;
 
+import de.uniaugsburg.isse.powerplants.Plant;
 import de.uniaugsburg.isse.powerplants.PowerPlantData;
 import de.uniaugsburg.isse.util.PowerPlantUtil;
 
@@ -25,12 +26,12 @@ public class RateOfChangeConstraint extends PlantConstraint {
 	}
 
 	@Override
-	public double maximize() {
+	public double maximize(Plant plant) {
 		return (1.0 + rateOfChange) * plant.getPower().max;
 	}
 
 	@Override
-	public double minimize() {
+	public double minimize(Plant plant) {
 		return (1.0 - rateOfChange) * plant.getPower().min;
 	}
 
@@ -1,5 +1,6 @@
 package de.uniaugsburg.isse.constraints;
 
+import de.uniaugsburg.isse.powerplants.Plant;
 import de.uniaugsburg.isse.powerplants.PowerPlantData;
 import de.uniaugsburg.isse.util.PowerPlantUtil;
 
@@ -16,20 +17,28 @@ public class StopTimeConstraint extends PlantConstraint {
 	 * MinStopTS is only relevant if we want to maximize (since we're in a hurry to get back running)
 	 */
 	@Override
-	public boolean maximizeBool() {
-		return getPlant().isRunning().max || getPlant().getConsStopping().max - minOffTime >= 0;
+	public boolean maximizeBool(Plant plant) {
+		return plant.isRunning().max || plant.getConsStopping().max - minOffTime >= 0;
 	}
 	
 	/**
 	 * MinRunTS is only relevant when minimizing, since we want to get down
 	 */
 	@Override
-	public boolean minimizeBool() {
+	public boolean minimizeBool(Plant plant) {
 		// more verbatim since more inconvenient to think about
-		if(!getPlant().isRunning().min)
+		if(!plant.isRunning().min)
 			return false;
 		else { // if the condition is met, we might allow for false, hence the negation
-			return !(getPlant().getConsRunning().min - minOnTime >= 0);
+			return !(plant.getConsRunning().min - minOnTime >= 0);
 		}
 	}
+
+	public int getMinOffTime() {
+		return minOffTime;
+	}
+
+	public int getMinOnTime() {
+		return minOnTime;
+	}
 }
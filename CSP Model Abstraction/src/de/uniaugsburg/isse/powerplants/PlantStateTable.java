@@ -0,0 +1,287 @@
+package de.uniaugsburg.isse.powerplants;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.uniaugsburg.isse.abstraction.types.Interval;
+
+/**
+ * States of a whole population of plants as parallel primitive arrays indexed
+ * by an integer plant id, an alternative to one PowerPlantState with four
+ * boxed intervals per plant. Ids are handed out in the order plants are added
+ * and can be looked up by name.
+ *
+ * A snapshot copies all arrays at once and can be restored any number of
+ * times, e.g. to start several runs from the same initial states.
+ *
+ */
+public class PlantStateTable {
+
+	/**
+	 * Copy of all state arrays of a table
+	 */
+	public static final class Snapshot {
+		private final int size;
+		private final double[] powerMin, powerMax;
+		private final boolean[] runningMin, runningMax;
+		private final int[] consRunningMin, consRunningMax;
+		private final int[] consStoppingMin, consStoppingMax;
+
+		private Snapshot(PlantStateTable table) {
+			size = table.size;
+			powerMin = Arrays.copyOf(table.powerMin, size);
+			powerMax = Arrays.copyOf(table.powerMax, size);
+			runningMin = Arrays.copyOf(table.runningMin, size);
+			runningMax = Arrays.copyOf(table.runningMax, size);
+			consRunningMin = Arrays.copyOf(table.consRunningMin, size);
+			consRunningMax = Arrays.copyOf(table.consRunningMax, size);
+			consStoppingMin = Arrays.copyOf(table.consStoppingMin, size);
+			consStoppingMax = Arrays.copyOf(table.consStoppingMax, size);
+		}
+	}
+
+	private int size;
+	private String[] names;
+	private PowerPlantData[] data;
+	private final Map<String, Integer> ids;
+
+	private double[] powerMin;
+	private double[] powerMax;
+	private boolean[] runningMin;
+	private boolean[] runningMax;
+	private int[] consRunningMin;
+	private int[] consRunningMax;
+	private int[] consStoppingMin;
+	private int[] consStoppingMax;
+
+	public PlantStateTable() {
+		this(16);
+	}
+
+	public PlantStateTable(int capacity) {
+		capacity = Math.max(capacity, 1);
+		ids = new HashMap<String, Integer>(capacity * 2);
+		names = new String[capacity];
+		data = new PowerPlantData[capacity];
+		powerMin = new double[capacity];
+		powerMax = new double[capacity];
+		runningMin = new boolean[capacity];
+		runningMax = new boolean[capacity];
+		consRunningMin = new int[capacity];
+		consRunningMax = new int[capacity];
+		consStoppingMin = new int[capacity];
+		consStoppingMax = new int[capacity];
+	}
+
+	/**
+	 * Adds a plant with the given state under the name of the state's plant
+	 *
+	 * @param state
+	 * @return the id of the plant
+	 */
+	public int add(PowerPlantState state) {
+		return add(state.getData().getName(), state.getData(), state);
+	}
+
+	/**
+	 * Adds a plant; missing counters of the state are taken as 0
+	 *
+	 * @param name
+	 *            null for plants that are only addressed by id
+	 * @param plantData
+	 *            may be null
+	 * @param state
+	 * @return the id of the plant
+	 */
+	public int add(String name, PowerPlantData plantData, PowerPlantState state) {
+		if (name != null && ids.containsKey(name))
+			throw new IllegalArgumentException("Plant " + name + " is already part of the table");
+		if (size == names.length)
+			grow();
+		int id = size++;
+		names[id] = name;
+		data[id] = plantData;
+		if (name != null)
+			ids.put(name, id);
+		load(id, state);
+		return id;
+	}
+
+	/**
+	 * Overwrites the state of a plant with the given one
+	 *
+	 * @param id
+	 * @param state
+	 */
+	public void load(int id, PowerPlantState state) {
+		powerMin[id] = state.getPower().min;
+		powerMax[id] = state.getPower().max;
+		runningMin[id] = state.isRunning().min;
+		runningMax[id] = state.isRunning().max;
+		consRunningMin[id] = state.getConsRunning() == null ? 0 : state.getConsRunning().min;
+		consRunningMax[id] = state.getConsRunning() == null ? 0 : state.getConsRunning().max;
+		consStoppingMin[id] = state.getConsStopping() == null ? 0 : state.getConsStopping().min;
+		consStoppingMax[id] = state.getConsStopping() == null ? 0 : state.getConsStopping().max;
+	}
+
+	/**
+	 * Creates a PowerPlantState holding the current state of a plant
+	 *
+	 * @param id
+	 * @return
+	 */
+	public PowerPlantState toState(int id) {
+		PowerPlantState state = new PowerPlantState();
+		state.setData(data[id]);
+		state.setPower(new Interval<Double>(powerMin[id], powerMax[id]));
+		state.setRunning(new Interval<Boolean>(runningMin[id], runningMax[id]));
+		state.setConsRunning(new Interval<Integer>(consRunningMin[id], consRunningMax[id]));
+		state.setConsStopping(new Interval<Integer>(consStoppingMin[id], consStoppingMax[id]));
+		return state;
+	}
+
+	public Snapshot snapshot() {
+		return new Snapshot(this);
+	}
+
+	/**
+	 * Resets all states to the snapshot; plants added after the snapshot are
+	 * kept with their current state
+	 *
+	 * @param snapshot
+	 */
+	public void restore(Snapshot snapshot) {
+		if (snapshot.size > size)
+			throw new IllegalArgumentException("Snapshot of " + snapshot.size + " plants does not fit a table of " + size);
+		int n = snapshot.size;
+		System.arraycopy(snapshot.powerMin, 0, powerMin, 0, n);
+		System.arraycopy(snapshot.powerMax, 0, powerMax, 0, n);
+		System.arraycopy(snapshot.runningMin, 0, runningMin, 0, n);
+		System.arraycopy(snapshot.runningMax, 0, runningMax, 0, n);
+		System.arraycopy(snapshot.consRunningMin, 0, consRunningMin, 0, n);
+		System.arraycopy(snapshot.consRunningMax, 0, consRunningMax, 0, n);
+		System.arraycopy(snapshot.consStoppingMin, 0, consStoppingMin, 0, n);
+		System.arraycopy(snapshot.consStoppingMax, 0, consStoppingMax, 0, n);
+	}
+
+	private void grow() {
+		int capacity = 2 * names.length;
+		names = Arrays.copyOf(names, capacity);
+		data = Arrays.copyOf(data, capacity);
+		powerMin = Arrays.copyOf(powerMin, capacity);
+		powerMax = Arrays.copyOf(powerMax, capacity);
+		runningMin = Arrays.copyOf(runningMin, capacity);
+		runningMax = Arrays.copyOf(runningMax, capacity);
+		consRunningMin = Arrays.copyOf(consRunningMin, capacity);
+		consRunningMax = Arrays.copyOf(consRunningMax, capacity);
+		consStoppingMin = Arrays.copyOf(consStoppingMin, capacity);
+		consStoppingMax = Arrays.copyOf(consStoppingMax, capacity);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param name
+	 * @return the id of the plant or -1 if it is not part of the table
+	 */
+	public int getId(String name) {
+		Integer id = ids.get(name);
+		return id == null ? -1 : id;
+	}
+
+	public String getName(int id) {
+		return names[id];
+	}
+
+	public PowerPlantData getData(int id) {
+		return data[id];
+	}
+
+	public double getPowerMin(int id) {
+		return powerMin[id];
+	}
+
+	public double getPowerMax(int id) {
+		return powerMax[id];
+	}
+
+	public void setPower(int id, double min, double max) {
+		powerMin[id] = min;
+		powerMax[id] = max;
+	}
+
+	public boolean isRunningMin(int id) {
+		return runningMin[id];
+	}
+
+	public boolean isRunningMax(int id) {
+		return runningMax[id];
+	}
+
+	public void setRunning(int id, boolean min, boolean max) {
+		runningMin[id] = min;
+		runningMax[id] = max;
+	}
+
+	public int getConsRunningMin(int id) {
+		return consRunningMin[id];
+	}
+
+	public int getConsRunningMax(int id) {
+		return consRunningMax[id];
+	}
+
+	public void setConsRunning(int id, int min, int max) {
+		consRunningMin[id] = min;
+		consRunningMax[id] = max;
+	}
+
+	public int getConsStoppingMin(int id) {
+		return consStoppingMin[id];
+	}
+
+	public int getConsStoppingMax(int id) {
+		return consStoppingMax[id];
+	}
+
+	public void setConsStopping(int id, int min, int max) {
+		consStoppingMin[id] = min;
+		consStoppingMax[id] = max;
+	}
+
+	/**
+	 * Same bookkeeping as PowerPlantState.updateRunning for the next step
+	 *
+	 * @param id
+	 * @param onMin
+	 * @param onMax
+	 */
+	public void updateRunning(int id, boolean onMin, boolean onMax) {
+		if (onMax) { // on now
+			if (runningMax[id]) // was already on
+				++consRunningMax[id];
+			else {
+				consRunningMax[id] = 1;
+				consStoppingMax[id] = 0;
+			}
+		} else { // still not on
+			++consStoppingMax[id];
+		}
+
+		if (!onMin) { // finally off
+			if (!runningMin[id]) // was already off
+				++consStoppingMin[id];
+			else {
+				consRunningMin[id] = 0;
+				consStoppingMin[id] = 1;
+			}
+		} else { // still running
+			++consRunningMin[id];
+		}
+		runningMin[id] = onMin;
+		runningMax[id] = onMax;
+	}
+}
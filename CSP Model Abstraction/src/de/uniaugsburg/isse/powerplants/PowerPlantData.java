@@ -9,6 +9,7 @@ import java.util.SortedSet;
 
 import de.uniaugsburg.isse.abstraction.types.Interval;
 import de.uniaugsburg.isse.abstraction.types.PiecewiseLinearFunction;
+import de.uniaugsburg.isse.abstraction.types.RegionSequence;
 import de.uniaugsburg.isse.constraints.Constraint;
 import de.uniaugsburg.isse.constraints.PlantConstraint;
 
@@ -54,6 +55,11 @@ public class PowerPlantData {
 	 * All holes as found by temporal abstraction
 	 */
 	private List<Collection<Interval<Double>>> allHoles;
+
+	/**
+	 * Run-length form of allFeasibleRegions, built on demand if only the lists were set
+	 */
+	private RegionSequence regionSequence;
 	/**
 	 * Set of constraints that are maximized/minimized during temporal abstraction
 	 */
@@ -132,6 +138,7 @@ public class PowerPlantData {
 		if(roc instanceof PlantConstraint) {
 			PlantConstraint pc = (PlantConstraint) roc;
 			pc.setId(newId);
+			pc.setOwner(this);
 		}
 	}
 
@@ -173,6 +180,29 @@ public class PowerPlantData {
 
 	public void setAllFeasibleRegions(List<SortedSet<Interval<Double>>> allFeasibleRegions) {
 		this.allFeasibleRegions = allFeasibleRegions;
+		this.regionSequence = null;
+	}
+
+	/**
+	 * Feasible regions per time step as read by parents during temporal abstraction
+	 * 
+	 * @return null if no temporal abstraction was set
+	 */
+	public RegionSequence getRegionSequence() {
+		if (regionSequence == null && allFeasibleRegions != null)
+			regionSequence = RegionSequence.of(allFeasibleRegions);
+		return regionSequence;
+	}
+
+	/**
+	 * Sets the result of temporal abstraction; allFeasibleRegions and allHoles become views of the sequence
+	 * 
+	 * @param regionSequence
+	 */
+	public void setRegionSequence(RegionSequence regionSequence) {
+		this.regionSequence = regionSequence;
+		this.allFeasibleRegions = regionSequence.getFeasibleRegions();
+		this.allHoles = regionSequence.getHoles();
 	}
 
 	@Override
@@ -3,8 +3,6 @@ package de.uniaugsburg.isse.powerplants;
 import java.util.Map;
 
 import de.uniaugsburg.isse.abstraction.types.Interval;
-import de.uniaugsburg.isse.constraints.Constraint;
-import de.uniaugsburg.isse.constraints.PlantConstraint;
 
 /**
  * Represents the current state of a plant for time sensitive abstraction
@@ -75,18 +73,6 @@ public class PowerPlantState implements Plant {
 				|| this.consRunning.max > 0);
 	}
 
-	public void updateConstraints() {
-		if (getData().getAssociatedConstraints() == null)
-			return;
-
-		for (Constraint c : getData().getAssociatedConstraints()) {
-			if (c instanceof PlantConstraint) {
-				PlantConstraint pc = (PlantConstraint) c;
-				pc.setPlant(this);
-			}
-		}
-	}
-
 	@Override
 	public Interval<Boolean> isRunning() {
 		return running;
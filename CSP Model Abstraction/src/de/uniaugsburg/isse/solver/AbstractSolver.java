@@ -12,6 +12,8 @@ public abstract class AbstractSolver {
 	protected AbstractModel model;
 	protected boolean solved;
 	protected String inputExpr;
+	protected boolean warmStart;
+	protected boolean parametric;
 
 	/**
 	 * Performs the actual solving process once the problem is configured
@@ -86,4 +88,40 @@ public abstract class AbstractSolver {
 	}
 
 	public abstract double getObjective();
+
+	public boolean isWarmStart() {
+		return warmStart;
+	}
+
+	/**
+	 * Hint to start each solve from the variable assignment of the previous one, e.g. of the neighbouring sample
+	 * point; solvers that cannot use an initial solution ignore it
+	 * 
+	 * @param warmStart
+	 */
+	public void setWarmStart(boolean warmStart) {
+		this.warmStart = warmStart;
+	}
+
+	/**
+	 * Forgets the assignment kept for the next warm start, e.g. if the objective changes
+	 */
+	public void resetWarmStart() {
+	}
+
+	public boolean isParametric() {
+		return parametric;
+	}
+
+	/**
+	 * Solves repeatedly with only the input changing: the model is generated once and setInput and
+	 * setInputLowerBound change the bounds of the input in the generated model until the objective or another
+	 * constraint changes. Solvers that cannot do so generate the model for each solve. Switching it off releases the
+	 * generated model.
+	 * 
+	 * @param parametric
+	 */
+	public void setParametric(boolean parametric) {
+		this.parametric = parametric;
+	}
 }
@@ -8,7 +8,9 @@ import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 
+import de.uniaugsburg.isse.abstraction.merging.MergeBuffer;
 import de.uniaugsburg.isse.abstraction.types.Interval;
+import de.uniaugsburg.isse.abstraction.types.IntervalSet;
 import de.uniaugsburg.isse.constraints.BoundsConstraint;
 import de.uniaugsburg.isse.constraints.Constraint;
 import de.uniaugsburg.isse.constraints.FixedChangeConstraint;
@@ -195,6 +197,22 @@ public class PowerPlantUtil {
 		return intervals;
 	}
 
+	/**
+	 * Packed feasible intervals of a single plant, same as the entries of
+	 * extractFromPlants
+	 * 
+	 * @param pd
+	 * @return
+	 */
+	public static IntervalSet extractIntervalSet(PowerPlantData pd) {
+		if (pd.getFeasibleRegions() != null)
+			return IntervalSet.of(pd.getFeasibleRegions());
+		Interval<Double> bounds = pd.getPowerBoundaries();
+		if (PowerPlantUtil.canBeOff(pd))
+			return IntervalSet.fromBounds(new double[] { 0.0, 0.0, bounds.min, bounds.max });
+		return IntervalSet.of(bounds.min, bounds.max);
+	}
+
 	public static Interval<Double> getZero() {
 		return new Interval<Double>(0.0);
 	}
@@ -257,30 +275,26 @@ public class PowerPlantUtil {
 	}
 
 	/**
-	 * For this operation to make sense, minIntervalSet must not be null
+	 * Merges every combination of the given intervals with the plant intervals
+	 * into the buffer; for this operation to make sense, minIntervalSet must
+	 * not be null
 	 * 
 	 * @param minIntervalSet
 	 * @param plantIntervalSet
 	 * @return
 	 */
-	public static de.uniaugsburg.isse.abstraction.merging.MergeLists.List plusSets(de.uniaugsburg.isse.abstraction.merging.MergeLists.List minIntervalSet,
-			Collection<Interval<Double>> plantIntervalSet) {
-		// first collect every combined interval, then merge them all in
+	public static MergeBuffer plusSets(MergeBuffer minIntervalSet, Collection<Interval<Double>> plantIntervalSet) {
 		if (minIntervalSet == null)
 			return null;
 
-		de.uniaugsburg.isse.abstraction.merging.MergeLists.List head = minIntervalSet;
-		Collection<Interval<Double>> newCombinations = new ArrayList<Interval<Double>>(head.size() * plantIntervalSet.size());
-		while (head != null) {
-			Interval<Double> leftSide = head.getInterval();
+		// first collect every combined interval, then merge them all in one pass
+		IntervalSet current = minIntervalSet.toIntervalSet();
+		for (int i = 0; i < current.size(); ++i) {
 			for (Interval<Double> rightSide : plantIntervalSet) {
-				newCombinations.add(plus(leftSide, rightSide));
+				minIntervalSet.add(current.getMin(i) + rightSide.min, current.getMax(i) + rightSide.max);
 			}
-			head = head.getNext();
-		}
-		for (Interval<Double> newCombination : newCombinations) {
-			minIntervalSet = de.uniaugsburg.isse.abstraction.merging.MergeLists.List.mergeIn(minIntervalSet, newCombination);
 		}
+		minIntervalSet.flush();
 		return minIntervalSet;
 	}
 
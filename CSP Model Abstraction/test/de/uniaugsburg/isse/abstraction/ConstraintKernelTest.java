@@ -0,0 +1,249 @@
+package de.uniaugsburg.isse.abstraction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.uniaugsburg.isse.abstraction.types.Interval;
+import de.uniaugsburg.isse.abstraction.types.RegionSequence;
+import de.uniaugsburg.isse.constraints.ForceOnConstraint;
+import de.uniaugsburg.isse.constraints.RateOfChangeConstraint;
+import de.uniaugsburg.isse.constraints.StopTimeConstraint;
+import de.uniaugsburg.isse.powerplants.PowerPlantData;
+import de.uniaugsburg.isse.powerplants.PowerPlantState;
+import de.uniaugsburg.isse.util.AbstractionParameterLiterals;
+import de.uniaugsburg.isse.util.PowerPlantUtil;
+
+public class ConstraintKernelTest {
+
+	private List<PowerPlantData> getRandomPlants(int count, long seed) {
+		Random random = new Random(seed);
+		List<PowerPlantData> plants = new ArrayList<PowerPlantData>(count);
+		for (int i = 0; i < count; ++i) {
+			double min = 5 + random.nextInt(20);
+			double max = min + 10 + random.nextInt(80);
+			PowerPlantData pd;
+			if (random.nextBoolean())
+				pd = PowerPlantUtil.getPowerPlant("P" + i, min, max, 0.05 + 0.3 * random.nextDouble());
+			else
+				pd = PowerPlantUtil.getPowerPlantFixed("P" + i, min, max, 1 + random.nextInt(15));
+
+			if (random.nextBoolean()) {
+				pd.put("minOffTime", Integer.toString(random.nextInt(4)));
+				pd.put("minOnTime", Integer.toString(random.nextInt(4)));
+				pd.addConstraint(new StopTimeConstraint(pd));
+			}
+			if (random.nextInt(5) == 0)
+				pd.addConstraint(new ForceOnConstraint());
+
+			// running at some power or off for a while
+			if (random.nextInt(3) == 0) {
+				pd.put(AbstractionParameterLiterals.POWER_INIT, "0.0");
+				pd.put(AbstractionParameterLiterals.CONSRUNNING_INIT, "0");
+				pd.put(AbstractionParameterLiterals.CONSSTOPPING_INIT, Integer.toString(1 + random.nextInt(3)));
+			} else {
+				pd.put(AbstractionParameterLiterals.POWER_INIT, Double.toString(min + (max - min) * random.nextDouble()));
+				pd.put(AbstractionParameterLiterals.CONSRUNNING_INIT, Integer.toString(1 + random.nextInt(3)));
+			}
+			plants.add(pd);
+		}
+		return plants;
+	}
+
+	@Test
+	public void testSameRegionsAsConstraints() {
+		List<PowerPlantData> plants = getRandomPlants(200, 11);
+		// not compilable, has to be interleaved in plant order
+		PowerPlantData twoRates = PowerPlantUtil.getPowerPlant("twoRates", 10, 40, 0.1);
+		twoRates.addConstraint(new RateOfChangeConstraint(twoRates, 0.05));
+		plants.add(100, twoRates);
+
+		TemporalAbstraction interpreted = new TemporalAbstraction();
+		interpreted.setPowerPlants(plants);
+		interpreted.perform(10);
+
+		TemporalAbstraction compiled = new TemporalAbstraction();
+		compiled.setPowerPlants(plants);
+		compiled.setUseCompiledConstraints(true);
+		compiled.perform(10);
+
+		Assert.assertEquals(interpreted.getAllFeasibleRegions(), compiled.getAllFeasibleRegions());
+		Assert.assertEquals(interpreted.getAllHoles(), compiled.getAllHoles());
+	}
+
+	@Test
+	public void testSaturation() {
+		List<PowerPlantData> plants = getRandomPlants(50, 23);
+
+		TemporalAbstraction interpreted = new TemporalAbstraction();
+		interpreted.setPowerPlants(plants);
+		interpreted.perform(60);
+
+		TemporalAbstraction compiled = new TemporalAbstraction();
+		compiled.setPowerPlants(plants);
+		compiled.setUseCompiledConstraints(true);
+		compiled.perform(60);
+
+		// remaining steps are copied but equal the computed ones
+		Assert.assertEquals(-1, interpreted.getHorizonSaturationStep());
+		Assert.assertTrue(compiled.getHorizonSaturationStep() > 0);
+		Assert.assertTrue(compiled.getHorizonSaturationStep() < 60);
+		Assert.assertEquals(interpreted.getAllFeasibleRegions(), compiled.getAllFeasibleRegions());
+		Assert.assertEquals(interpreted.getAllHoles(), compiled.getAllHoles());
+
+		for (PowerPlantData pd : plants) {
+			Assert.assertEquals(-1, interpreted.getSaturationStep(pd));
+			Assert.assertTrue(compiled.getSaturationStep(pd) > 0);
+			Assert.assertTrue(compiled.getSaturationStep(pd) <= compiled.getHorizonSaturationStep());
+		}
+	}
+
+	@Test
+	public void testBatchMatchesSingleRuns() {
+		List<PowerPlantData> plants = getRandomPlants(60, 31);
+		PowerPlantData twoRates = PowerPlantUtil.getPowerPlant("twoRates", 10, 40, 0.1);
+		twoRates.addConstraint(new RateOfChangeConstraint(twoRates, 0.05));
+		plants.add(30, twoRates);
+
+		List<Map<PowerPlantData, PowerPlantState>> lanes = getRestartLanes(plants, 4, 3);
+
+		TemporalAbstraction batch = new TemporalAbstraction();
+		batch.setPowerPlants(plants);
+		batch.setUseCompiledConstraints(true);
+		List<RegionSequence> results = batch.performBatch(30, lanes);
+		Assert.assertEquals(lanes.size(), results.size());
+
+		for (int lane = 0; lane < lanes.size(); ++lane) {
+			Map<String, String> saved = restart(lanes.get(lane));
+			TemporalAbstraction single = new TemporalAbstraction();
+			single.setPowerPlants(plants);
+			single.perform(30);
+			Assert.assertEquals(single.getRegionSequence(), results.get(lane));
+			restore(lanes.get(lane), saved);
+		}
+	}
+
+	@Test
+	public void testHierarchyBatchMatchesSingleRuns() {
+		List<PowerPlantData> plants = getRandomPlants(40, 37);
+		List<List<PowerPlantData>> groups = new ArrayList<List<PowerPlantData>>();
+		groups.add(plants.subList(0, 20));
+		groups.add(plants.subList(20, 35));
+		List<PowerPlantData> parentPlants = new ArrayList<PowerPlantData>(plants.subList(35, 40));
+		List<PowerPlantData> avpps = new ArrayList<PowerPlantData>();
+		for (int a = 0; a < groups.size(); ++a) {
+			GeneralAbstraction ga = new GeneralAbstraction();
+			ga.setPowerPlants(groups.get(a));
+			ga.perform();
+			PowerPlantData avpp = new PowerPlantData("AVPP" + a);
+			avpp.setAVPP(true);
+			avpp.setFeasibleRegions(ga.getFeasibleRegions());
+			avpp.setHoles(ga.getHoles());
+			avpps.add(avpp);
+			parentPlants.add(avpp);
+		}
+		List<Map<PowerPlantData, PowerPlantState>> lanes = getRestartLanes(plants, 3, 5);
+
+		// bottom up, the parent sums the regions of its AVPPs in the same lane
+		List<Map<PowerPlantData, RegionSequence>> laneSequences = new ArrayList<Map<PowerPlantData, RegionSequence>>();
+		for (int lane = 0; lane < lanes.size(); ++lane)
+			laneSequences.add(new HashMap<PowerPlantData, RegionSequence>());
+		for (int a = 0; a < groups.size(); ++a) {
+			TemporalAbstraction child = new TemporalAbstraction();
+			child.setPowerPlants(groups.get(a));
+			child.setUseCompiledConstraints(true);
+			List<RegionSequence> results = child.performBatch(20, lanes);
+			for (int lane = 0; lane < lanes.size(); ++lane)
+				laneSequences.get(lane).put(avpps.get(a), results.get(lane));
+		}
+		TemporalAbstraction parent = new TemporalAbstraction();
+		parent.setPowerPlants(parentPlants);
+		parent.setUseCompiledConstraints(true);
+		List<RegionSequence> results = parent.performBatch(20, lanes, laneSequences);
+
+		for (int lane = 0; lane < lanes.size(); ++lane) {
+			Map<String, String> saved = restart(lanes.get(lane));
+			for (int a = 0; a < groups.size(); ++a) {
+				TemporalAbstraction child = new TemporalAbstraction();
+				child.setPowerPlants(groups.get(a));
+				child.perform(20);
+				Assert.assertEquals(child.getRegionSequence(), laneSequences.get(lane).get(avpps.get(a)));
+				avpps.get(a).setRegionSequence(child.getRegionSequence());
+			}
+			TemporalAbstraction single = new TemporalAbstraction();
+			single.setPowerPlants(parentPlants);
+			single.perform(20);
+			Assert.assertEquals(single.getRegionSequence(), results.get(lane));
+			restore(lanes.get(lane), saved);
+		}
+	}
+
+	/**
+	 * Each lane restarts a random subset of the plants at their minimum
+	 */
+	private List<Map<PowerPlantData, PowerPlantState>> getRestartLanes(List<PowerPlantData> plants, int count, long seed) {
+		Random random = new Random(seed);
+		List<Map<PowerPlantData, PowerPlantState>> lanes = new ArrayList<Map<PowerPlantData, PowerPlantState>>();
+		for (int lane = 0; lane < count; ++lane) {
+			Map<PowerPlantData, PowerPlantState> states = new HashMap<PowerPlantData, PowerPlantState>();
+			for (PowerPlantData pd : plants) {
+				if (random.nextBoolean()) {
+					PowerPlantState state = new PowerPlantState();
+					state.setData(pd);
+					state.initialize();
+					state.setPower(new Interval<Double>(pd.getPowerBoundaries().min));
+					state.setRunning(new Interval<Boolean>(true));
+					state.setConsRunning(new Interval<Integer>(1));
+					state.setConsStopping(new Interval<Integer>(0));
+					states.put(pd, state);
+				}
+			}
+			lanes.add(states);
+		}
+		return lanes;
+	}
+
+	/**
+	 * Sets the init values of the restarted plants of a lane and returns the previous ones
+	 */
+	private Map<String, String> restart(Map<PowerPlantData, PowerPlantState> lane) {
+		Map<String, String> saved = new HashMap<String, String>();
+		for (PowerPlantData pd : lane.keySet()) {
+			saved.put(pd.getName(), pd.get(AbstractionParameterLiterals.POWER_INIT) + ";"
+					+ pd.get(AbstractionParameterLiterals.CONSRUNNING_INIT) + ";"
+					+ pd.get(AbstractionParameterLiterals.CONSSTOPPING_INIT));
+			setInit(pd, Double.toString(pd.getPowerBoundaries().min), "1", "0");
+		}
+		return saved;
+	}
+
+	private void restore(Map<PowerPlantData, PowerPlantState> lane, Map<String, String> saved) {
+		for (PowerPlantData pd : lane.keySet()) {
+			String[] init = saved.get(pd.getName()).split(";");
+			setInit(pd, init[0], init[1], init[2]);
+		}
+	}
+
+	private void setInit(PowerPlantData pd, String power, String consRunning, String consStopping) {
+		pd.put(AbstractionParameterLiterals.POWER_INIT, power);
+		pd.put(AbstractionParameterLiterals.CONSRUNNING_INIT, consRunning);
+		pd.put(AbstractionParameterLiterals.CONSSTOPPING_INIT, consStopping);
+	}
+
+	@Test
+	public void testCompilable() {
+		PowerPlantData pd = PowerPlantUtil.getPowerPlant("P", 10, 40, 0.1);
+		PowerPlantState state = new PowerPlantState();
+		state.setData(pd);
+		state.initialize();
+		Assert.assertTrue(ConstraintKernel.isCompilable(state));
+
+		pd.addConstraint(new RateOfChangeConstraint(pd, 0.2));
+		Assert.assertFalse(ConstraintKernel.isCompilable(state));
+	}
+}
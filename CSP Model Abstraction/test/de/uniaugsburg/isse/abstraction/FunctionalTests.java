@@ -2,16 +2,27 @@ package de.uniaugsburg.isse.abstraction;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import junit.framework.Assert;
 
 import org.junit.Test;
 
+import de.uniaugsburg.isse.abstraction.merging.HoleDetection;
+import de.uniaugsburg.isse.abstraction.merging.MinkowskiSumTree;
+import de.uniaugsburg.isse.abstraction.merging.ParallelHoleDetection;
+import de.uniaugsburg.isse.abstraction.merging.RegionCache;
 import de.uniaugsburg.isse.abstraction.types.Interval;
+import de.uniaugsburg.isse.abstraction.types.IntervalSet;
+import de.uniaugsburg.isse.abstraction.types.RegionSequence;
 import de.uniaugsburg.isse.powerplants.PowerPlantData;
+import de.uniaugsburg.isse.util.AbstractionParameterLiterals;
 import de.uniaugsburg.isse.util.PowerPlantUtil;
 
 public class FunctionalTests {
@@ -385,4 +396,711 @@ public class FunctionalTests {
 		Assert.assertTrue(PowerPlantUtil.compareIntervals(expectedRegions,
 				feasibleRegions));
 	}
+
+	/**
+	 * Many on/off plants - merging after every plant has to yield the same
+	 * regions as the full cross product while keeping the working set small
+	 */
+	@Test
+	public void testManyOnOffPlants() {
+		Collection<PowerPlantData> pd = new ArrayList<PowerPlantData>(12);
+		for (int i = 0; i < 12; ++i) {
+			pd.add(PowerPlantFactory.getSimplePlant(30.0 + i, 40.0 + 2 * i,
+					"CPP" + i));
+		}
+
+		GeneralAbstraction ga = new GeneralAbstraction();
+		ga.setPowerPlants(pd);
+		ga.performNew();
+
+		// reference: unmerged cross product, merged once at the end
+		Collection<Interval<Double>> crossProduct = null;
+		for (Collection<Interval<Double>> plantIntervals : PowerPlantUtil
+				.extractFromPlants(pd)) {
+			crossProduct = crossProduct == null ? plantIntervals
+					: PowerPlantUtil.plusSets(crossProduct, plantIntervals);
+		}
+		IntervalSet expected = IntervalSet.of(crossProduct);
+
+		Assert.assertEquals(4096, crossProduct.size());
+		Assert.assertTrue(PowerPlantUtil.compareIntervals(
+				expected.toSortedSet(), ga.getFeasibleRegions()));
+		Assert.assertTrue(PowerPlantUtil.compareIntervals(expected.holes()
+				.toSortedSet(), ga.getHoles()));
+		Assert.assertTrue(ga.getPeakIntermediateSize() <= pd.size());
+	}
+
+	/**
+	 * Once the regions are contiguous the remaining plants are only added up
+	 */
+	@Test
+	public void testSaturation() {
+		Collection<PowerPlantData> pd = new ArrayList<PowerPlantData>(50);
+		for (int i = 0; i < 50; ++i) {
+			pd.add(PowerPlantFactory.getSimplePlant(10.0 + i % 7, 20.0 + i,
+					"CPP" + i));
+		}
+
+		GeneralAbstraction ga = new GeneralAbstraction();
+		ga.setPowerPlants(pd);
+		ga.performNew();
+
+		Collection<Interval<Double>> expectedRegions = new ArrayList<Interval<Double>>(
+				2);
+		expectedRegions.add(new Interval<Double>(0.0, 0.0));
+		expectedRegions.add(new Interval<Double>(10.0, 50 * 20.0 + 49 * 25.0));
+		Assert.assertTrue(PowerPlantUtil.compareIntervals(expectedRegions,
+				ga.getFeasibleRegions()));
+		Assert.assertTrue(ga.getSaturationIndex() > 0);
+		Assert.assertTrue(ga.getSaturationIndex() < 10);
+	}
+
+	/**
+	 * Closed form after saturation has to agree with the full fold
+	 */
+	@Test
+	public void testSaturationMatchesFold() {
+		Random random = new Random(42);
+		for (int run = 0; run < 20; ++run) {
+			List<IntervalSet> plantSets = new ArrayList<IntervalSet>();
+			for (int i = 0; i < 30; ++i) {
+				double pMin = 1 + random.nextInt(20);
+				double pMax = pMin + random.nextInt(30);
+				if (random.nextInt(4) == 0) // must be on
+					plantSets.add(IntervalSet.of(pMin, pMax));
+				else
+					plantSets.add(IntervalSet.fromBounds(new double[] { 0.0,
+							0.0, pMin, pMax }));
+			}
+			HoleDetection full = new HoleDetection();
+			full.setUseSaturation(false);
+			HoleDetection saturating = new HoleDetection();
+
+			Assert.assertEquals(full.detectHoles(plantSets),
+					saturating.detectHoles(plantSets));
+			Assert.assertEquals(full.getRegions(), saturating.getRegions());
+		}
+	}
+
+	/**
+	 * Divide and conquer on a fork join pool has to agree with the fold
+	 */
+	@Test
+	public void testParallelHoleDetection() {
+		Random random = new Random(7);
+		List<IntervalSet> plantSets = new ArrayList<IntervalSet>();
+		for (int i = 0; i < 200; ++i) {
+			double pMin = 1 + random.nextInt(40);
+			double pMax = pMin + random.nextInt(10);
+			plantSets.add(IntervalSet.fromBounds(new double[] { 0.0, 0.0,
+					pMin, pMax }));
+		}
+		HoleDetection sequential = new HoleDetection();
+		sequential.setUseSaturation(false);
+		ParallelHoleDetection parallel = new ParallelHoleDetection(4, 8);
+
+		Assert.assertEquals(sequential.detectHoles(plantSets),
+				parallel.detectHoles(plantSets));
+		Assert.assertEquals(sequential.getRegions(), parallel.getRegions());
+		Assert.assertTrue(parallel.getPeakIntermediateSize() > 0);
+		parallel.shutdown();
+	}
+
+	/**
+	 * Partial sums that saturate are combined in closed form
+	 */
+	@Test
+	public void testParallelSaturation() {
+		List<IntervalSet> plantSets = new ArrayList<IntervalSet>();
+		for (int i = 0; i < 200; ++i) {
+			plantSets.add(IntervalSet.fromBounds(new double[] { 0.0, 0.0,
+					10.0 + i % 7, 20.0 + i }));
+		}
+		HoleDetection sequential = new HoleDetection();
+		sequential.setUseSaturation(false);
+		ParallelHoleDetection parallel = new ParallelHoleDetection(4, 8);
+		try {
+			Assert.assertEquals(sequential.detectHoles(plantSets),
+					parallel.detectHoles(plantSets));
+			Assert.assertEquals(sequential.getRegions(), parallel.getRegions());
+			Assert.assertTrue(parallel.getSaturationIndex() >= 0);
+		} finally {
+			parallel.shutdown();
+		}
+	}
+
+	/**
+	 * Parallel and sequential detection agree bit for bit on bounds that are
+	 * not exactly representable
+	 */
+	@Test
+	public void testParallelHoleDetectionExact() {
+		Random random = new Random(5);
+		List<IntervalSet> plantSets = new ArrayList<IntervalSet>();
+		for (int i = 0; i < 300; ++i) {
+			double min = 10.1 + random.nextInt(500) * 0.07;
+			plantSets.add(IntervalSet.fromBounds(new double[] { 0.0, 0.0, min,
+					min + 0.3 + random.nextInt(40) * 0.13 }));
+		}
+		HoleDetection sequential = new HoleDetection();
+		sequential.setUseSaturation(false);
+		ParallelHoleDetection parallel = new ParallelHoleDetection(4, 8);
+		parallel.setUseSaturation(false);
+		try {
+			IntervalSet holes = sequential.detectHoles(plantSets);
+			Assert.assertEquals(holes, parallel.detectHoles(plantSets));
+			Assert.assertEquals(sequential.getRegions(), parallel.getRegions());
+			for (int i = 0; i < holes.size(); ++i)
+				Assert.assertTrue(holes.getMax(i) - holes.getMin(i) > 1e-6);
+		} finally {
+			parallel.shutdown();
+		}
+	}
+
+	/**
+	 * Adding, removing and changing single children has to give the same
+	 * regions as a complete abstraction of the resulting plant set
+	 */
+	@Test
+	public void testIncrementalGeneralAbstraction() {
+		Random random = new Random(11);
+		List<PowerPlantData> plants = new ArrayList<PowerPlantData>();
+		for (int i = 0; i < 20; ++i) {
+			plants.add(PowerPlantFactory.getSimplePlant(
+					20.0 + random.nextInt(30), 60.0 + random.nextInt(40),
+					"CPP" + i));
+		}
+		List<PowerPlantData> initial = new ArrayList<PowerPlantData>(plants);
+		RegionCache cache = new RegionCache(4);
+		GeneralAbstraction incremental = new GeneralAbstraction();
+		incremental.setPowerPlants(initial);
+		incremental.setRegionCache(cache);
+		incremental.performNew();
+
+		for (int step = 0; step < 30; ++step) {
+			int index = random.nextInt(plants.size());
+			switch (step % 3) {
+			case 0:
+				PowerPlantData changed = plants.get(index);
+				changed.setPowerBoundaries(new Interval<Double>(
+						10.0 + random.nextInt(60), 80.0 + random.nextInt(40)));
+				incremental.updatePowerPlant(changed);
+				break;
+			case 1:
+				PowerPlantData joining = PowerPlantFactory.getOnPlant(
+						5.0 + random.nextInt(10), 30.0, "New" + step);
+				plants.add(joining);
+				incremental.addPowerPlant(joining);
+				break;
+			default:
+				incremental.removePowerPlant(plants.remove(index));
+			}
+
+			GeneralAbstraction complete = new GeneralAbstraction();
+			complete.setPowerPlants(plants);
+			complete.performNew();
+			Assert.assertTrue(PowerPlantUtil.compareIntervals(
+					complete.getFeasibleRegions(),
+					incremental.getFeasibleRegions()));
+			Assert.assertTrue(PowerPlantUtil.compareIntervals(
+					complete.getHoles(), incremental.getHoles()));
+			Assert.assertEquals(plants.size(), incremental.getPowerPlants()
+					.size());
+			Assert.assertTrue(incremental.getPeakIntermediateSize() > 0);
+		}
+		// the caller's collection is left alone
+		Assert.assertEquals(20, initial.size());
+
+		// removing and adding back a child hits the cache
+		long hits = cache.getHits();
+		PowerPlantData first = plants.get(0);
+		incremental.removePowerPlant(first);
+		incremental.addPowerPlant(first);
+		Assert.assertEquals(hits + 1, cache.getHits());
+	}
+
+	/**
+	 * Freed and unknown slots of the sum tree are rejected instead of being
+	 * handed out twice
+	 */
+	@Test
+	public void testSumTreeSlots() {
+		List<IntervalSet> plantSets = new ArrayList<IntervalSet>();
+		plantSets.add(IntervalSet.of(1, 2));
+		plantSets.add(IntervalSet.of(10, 20));
+		MinkowskiSumTree tree = new MinkowskiSumTree(plantSets);
+		tree.remove(0);
+		try {
+			tree.set(0, IntervalSet.of(3, 4));
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			tree.set(2, IntervalSet.of(3, 4));
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		Assert.assertEquals(0, tree.add(IntervalSet.of(3, 4)));
+		Assert.assertEquals(2, tree.add(IntervalSet.of(0, 1)));
+		Assert.assertEquals(IntervalSet.of(13, 25), tree.total());
+	}
+
+	/**
+	 * Temporal abstraction recombining only changed plants in the sum tree
+	 */
+	@Test
+	public void testTemporalAbstractionSumTree() {
+		Collection<PowerPlantData> pd = new ArrayList<PowerPlantData>(10);
+		for (int i = 0; i < 10; ++i) {
+			pd.add(PowerPlantFactory.getSimplePlant(10.0 + i, 50.0 + 5 * i,
+					20.0 + i, 1.0 + i % 3, "CPP" + i));
+		}
+
+		TemporalAbstraction folded = new TemporalAbstraction();
+		folded.setPowerPlants(pd);
+		folded.perform(8);
+
+		TemporalAbstraction tree = new TemporalAbstraction();
+		tree.setPowerPlants(pd);
+		tree.setUseSumTree(true);
+		tree.perform(8);
+
+		Assert.assertTrue(PowerPlantUtil.compareIntervalSets(
+				PowerPlantUtil.convert(folded.getAllFeasibleRegions()),
+				PowerPlantUtil.convert(tree.getAllFeasibleRegions())));
+	}
+
+	/**
+	 * Rolling the horizon gives the same regions as a fresh abstraction and
+	 * only recomputes plants whose initial power changed
+	 */
+	@Test
+	public void testRollingTemporalAbstraction() {
+		List<PowerPlantData> pd = new ArrayList<PowerPlantData>(10);
+		for (int i = 0; i < 10; ++i) {
+			pd.add(PowerPlantFactory.getSimplePlant(10.0 + i, 50.0 + 5 * i,
+					20.0 + i, 1.0 + i % 3, "CPP" + i));
+		}
+
+		TemporalAbstraction rolling = new TemporalAbstraction();
+		rolling.setPowerPlants(pd);
+		rolling.setRolling(true);
+		rolling.perform(8);
+		Assert.assertEquals(10, rolling.getRecomputedPlants());
+
+		for (int step = 1; step <= 3; ++step) {
+			// two plants move, the others keep their power
+			pd.get(step).put(AbstractionParameterLiterals.POWER_INIT,
+					Double.toString(21.0 + step));
+			pd.get(step + 5).put(AbstractionParameterLiterals.POWER_INIT,
+					Double.toString(30.0 - step));
+			rolling.perform(8);
+			Assert.assertEquals(2, rolling.getRecomputedPlants());
+
+			TemporalAbstraction fresh = new TemporalAbstraction();
+			fresh.setPowerPlants(pd);
+			fresh.perform(8);
+			Assert.assertTrue(PowerPlantUtil.compareIntervalSets(
+					PowerPlantUtil.convert(fresh.getAllFeasibleRegions()),
+					PowerPlantUtil.convert(rolling.getAllFeasibleRegions())));
+		}
+	}
+
+	/**
+	 * Children set again between rolling steps keep the tracks of the plants
+	 * that remain, new ones are recomputed
+	 */
+	@Test
+	public void testRollingChangedChildren() {
+		List<PowerPlantData> pd = new ArrayList<PowerPlantData>(10);
+		for (int i = 0; i < 10; ++i) {
+			pd.add(PowerPlantFactory.getSimplePlant(10.0 + i, 50.0 + 5 * i,
+					20.0 + i, 1.0 + i % 3, "CPP" + i));
+		}
+		TemporalAbstraction rolling = new TemporalAbstraction();
+		rolling.setPowerPlants(new ArrayList<PowerPlantData>(pd));
+		rolling.setRolling(true);
+		rolling.perform(8);
+
+		pd.remove(4);
+		pd.add(PowerPlantFactory.getSimplePlant(15.0, 40.0, 25.0, 2.0, "New"));
+		rolling.setPowerPlants(new ArrayList<PowerPlantData>(pd));
+		rolling.perform(8);
+		Assert.assertEquals(1, rolling.getRecomputedPlants());
+
+		TemporalAbstraction fresh = new TemporalAbstraction();
+		fresh.setPowerPlants(pd);
+		fresh.perform(8);
+		Assert.assertEquals(fresh.getRegionSequence(),
+				rolling.getRegionSequence());
+	}
+
+	/**
+	 * Rolling with compiled constraints recomputes changed plants in the
+	 * kernel and reuses the steps it recorded for the others
+	 */
+	@Test
+	public void testRollingCompiledTemporalAbstraction() {
+		List<PowerPlantData> pd = new ArrayList<PowerPlantData>(10);
+		for (int i = 0; i < 10; ++i) {
+			pd.add(PowerPlantFactory.getSimplePlant(10.0 + i, 50.0 + 5 * i,
+					20.0 + i, 1.0 + i % 3, "CPP" + i));
+		}
+
+		TemporalAbstraction rolling = new TemporalAbstraction();
+		rolling.setPowerPlants(pd);
+		rolling.setRolling(true);
+		rolling.setUseCompiledConstraints(true);
+		rolling.perform(8);
+		Assert.assertEquals(10, rolling.getRecomputedPlants());
+
+		for (int step = 1; step <= 3; ++step) {
+			pd.get(step).put(AbstractionParameterLiterals.POWER_INIT,
+					Double.toString(21.0 + step));
+			rolling.perform(8 + step);
+			Assert.assertEquals(1, rolling.getRecomputedPlants());
+
+			TemporalAbstraction fresh = new TemporalAbstraction();
+			fresh.setPowerPlants(pd);
+			fresh.perform(8 + step);
+			Assert.assertTrue(PowerPlantUtil.compareIntervalSets(
+					PowerPlantUtil.convert(fresh.getAllFeasibleRegions()),
+					PowerPlantUtil.convert(rolling.getAllFeasibleRegions())));
+		}
+	}
+
+	/**
+	 * Pruning to a target envelope only removes regions outside of it
+	 */
+	@Test
+	public void testTargetEnvelope() {
+		List<PowerPlantData> pd = new ArrayList<PowerPlantData>(10);
+		for (int i = 0; i < 10; ++i) {
+			pd.add(PowerPlantFactory.getSimplePlant(10.0 + i, 50.0 + 5 * i,
+					20.0 + i, 1.0 + i % 3, "CPP" + i));
+		}
+		// may switch off, the sums have a hole
+		pd.add(PowerPlantFactory.getSimplePlant(100.0, 120.0, 100.0, 5.0,
+				"Big"));
+		TemporalAbstraction full = new TemporalAbstraction();
+		full.setPowerPlants(pd);
+		full.perform(6);
+
+		double[] lower = new double[] { 100, 150, 150, 200, 250 };
+		double[] upper = new double[] { 250, 250, 300, 300, 350 };
+		TemporalAbstraction pruned = new TemporalAbstraction();
+		pruned.setPowerPlants(pd);
+		pruned.setTargetEnvelope(lower, upper);
+		pruned.perform(6);
+
+		Assert.assertEquals(full.getRegionSequence().length(), pruned
+				.getRegionSequence().length());
+		for (int t = 1; t <= full.getRegionSequence().length(); ++t) {
+			IntervalSet regions = full.getRegionSequence().get(t);
+			IntervalSet expected = t <= lower.length ? regions.clip(
+					lower[t - 1], upper[t - 1]) : regions;
+			Assert.assertEquals(expected, pruned.getRegionSequence().get(t));
+		}
+		Assert.assertTrue(pruned.getPrunedIntervals() > 0);
+	}
+
+	private PowerPlantData getAvpp(String name, RegionSequence regions,
+			boolean asSequence) {
+		PowerPlantData avpp = new PowerPlantData(name);
+		if (asSequence) {
+			avpp.setRegionSequence(regions);
+		} else {
+			avpp.setAllFeasibleRegions(new ArrayList<SortedSet<Interval<Double>>>(
+					regions.getFeasibleRegions()));
+			avpp.setAllHoles(new ArrayList<Collection<Interval<Double>>>(
+					regions.getHoles()));
+		}
+		return avpp;
+	}
+
+	/**
+	 * Exported temporal abstraction data is reused for unchanged steps and
+	 * equals the data written from the region lists
+	 */
+	@Test
+	public void testTemporalExportReuse() {
+		List<PowerPlantData> pd = new ArrayList<PowerPlantData>(10);
+		for (int i = 0; i < 10; ++i) {
+			pd.add(PowerPlantFactory.getSimplePlant(10.0 + i, 50.0 + 5 * i,
+					20.0 + i, 1.0 + i % 3, "CPP" + i));
+		}
+		pd.add(PowerPlantFactory.getSimplePlant(100.0, 120.0, 100.0, 5.0,
+				"Big"));
+		TemporalAbstraction ta = new TemporalAbstraction();
+		ta.setPowerPlants(pd);
+		ta.perform(6);
+		RegionSequence regions = ta.getRegionSequence();
+
+		// the next simulation step, shifted by one
+		RegionSequence.Builder builder = new RegionSequence.Builder();
+		for (int t = 2; t <= regions.length(); ++t)
+			builder.add(regions.get(t));
+		builder.add(regions.get(regions.length()));
+		RegionSequence shifted = builder.build();
+
+		CplexExporter exporter = new CplexExporter();
+		exporter.setTimeHorizon(8);
+		CplexExporter fromLists = new CplexExporter();
+		fromLists.setTimeHorizon(8);
+
+		String data = exporter.getTemporalAbstractionData(Collections
+				.singletonList(getAvpp("A", regions, true)));
+		Assert.assertEquals(fromLists.getTemporalAbstractionData(Collections
+				.singletonList(getAvpp("A", regions, false))), data);
+		int formatted = exporter.getFormattedSteps();
+		Assert.assertEquals(regions.getRunCount(), formatted);
+
+		Assert.assertEquals(data, exporter.getTemporalAbstractionData(Collections
+				.singletonList(getAvpp("A", regions, true))));
+		String shiftedData = exporter.getTemporalAbstractionData(Collections
+				.singletonList(getAvpp("A", shifted, true)));
+		Assert.assertEquals(formatted, exporter.getFormattedSteps());
+		Assert.assertEquals(fromLists.getTemporalAbstractionData(Collections
+				.singletonList(getAvpp("A", shifted, false))), shiftedData);
+
+		// a new horizon pads differently, nothing is taken over
+		exporter.setTimeHorizon(10);
+		CplexExporter longer = new CplexExporter();
+		longer.setTimeHorizon(10);
+		Assert.assertEquals(longer.getTemporalAbstractionData(Collections
+				.singletonList(getAvpp("A", shifted, false))), exporter
+				.getTemporalAbstractionData(Collections.singletonList(getAvpp(
+						"A", shifted, true))));
+		Assert.assertEquals(formatted + longer.getFormattedSteps(),
+				exporter.getFormattedSteps());
+	}
+
+	/**
+	 * A parent of pruned children converges within its own envelope no later
+	 * than its children
+	 */
+	@Test
+	public void testPrunedHierarchyConvergence() {
+		double[] lower = new double[] { 100, 120, 140, 160, 160, 160, 160, 160 };
+		double[] upper = new double[] { 180, 190, 200, 200, 200, 200, 200, 200 };
+		List<PowerPlantData> avpps = new ArrayList<PowerPlantData>(2);
+		int childSteps = 0;
+		for (int a = 0; a < 2; ++a) {
+			List<PowerPlantData> pd = new ArrayList<PowerPlantData>(3);
+			pd.add(PowerPlantFactory.getSimplePlant(20.0, 30.0, 25.0, 5.0,
+					"CPP1" + a));
+			pd.add(PowerPlantFactory.getSimplePlant(50.0, 60.0, 55.0, 5.0,
+					"CPP2" + a));
+			pd.add(PowerPlantFactory.getSimplePlant(100.0, 110.0, 0.0, 5.0,
+					"CPP3" + a));
+			GeneralAbstraction ga = new GeneralAbstraction();
+			ga.setPowerPlants(pd);
+			ga.perform();
+
+			TemporalAbstraction ta = new TemporalAbstraction();
+			ta.setPowerPlants(pd);
+			ta.setGeneralFeasibleRegions(ga.getFeasibleRegions());
+			ta.setGeneralHoles(ga.getHoles());
+			ta.setTargetEnvelope(lower, upper);
+			ta.perform(20);
+			Assert.assertTrue(ta.getRegionSequence().length() < 20);
+			childSteps = Math.max(childSteps, ta.getRegionSequence().length());
+
+			PowerPlantData avpp = new PowerPlantData("AVPP" + a);
+			avpp.setAVPP(true);
+			avpp.setFeasibleRegions(ga.getFeasibleRegions());
+			avpp.setHoles(ga.getHoles());
+			avpp.setRegionSequence(ta.getRegionSequence());
+			avpps.add(avpp);
+		}
+		GeneralAbstraction ga = new GeneralAbstraction();
+		ga.setPowerPlants(avpps);
+		ga.perform();
+
+		double[] parentLower = new double[lower.length];
+		double[] parentUpper = new double[upper.length];
+		for (int t = 0; t < lower.length; ++t) {
+			parentLower[t] = 2 * lower[t];
+			parentUpper[t] = 2 * upper[t];
+		}
+		TemporalAbstraction parent = new TemporalAbstraction();
+		parent.setPowerPlants(avpps);
+		parent.setGeneralFeasibleRegions(ga.getFeasibleRegions());
+		parent.setGeneralHoles(ga.getHoles());
+		parent.setTargetEnvelope(parentLower, parentUpper);
+		parent.perform(20);
+		Assert.assertTrue(parent.getRegionSequence().length() <= childSteps);
+	}
+
+	/**
+	 * Concurrent propagation of plant states yields the same regions
+	 */
+	@Test
+	public void testConcurrentPropagation() {
+		Collection<PowerPlantData> pd = new ArrayList<PowerPlantData>(40);
+		for (int i = 0; i < 40; ++i) {
+			pd.add(PowerPlantFactory.getSimplePlant(10.0 + i, 50.0 + 5 * i,
+					20.0 + i, 1.0 + i % 3, "CPP" + i));
+		}
+
+		TemporalAbstraction sequential = new TemporalAbstraction();
+		sequential.setPowerPlants(pd);
+		sequential.perform(8);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			TemporalAbstraction concurrent = new TemporalAbstraction();
+			concurrent.setPowerPlants(pd);
+			concurrent.setPropagationExecutor(executor);
+			concurrent.perform(8);
+
+			Assert.assertTrue(PowerPlantUtil.compareIntervalSets(
+					PowerPlantUtil.convert(sequential.getAllFeasibleRegions()),
+					PowerPlantUtil.convert(concurrent.getAllFeasibleRegions())));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Quantized abstraction agrees with plain doubles up to the resolution
+	 */
+	@Test
+	public void testQuantizedGeneralAbstraction() {
+		Collection<PowerPlantData> pd = new ArrayList<PowerPlantData>(10);
+		for (int i = 0; i < 10; ++i) {
+			pd.add(PowerPlantFactory.getSimplePlant(10.1 + 3 * i,
+					30.3 + 0.7 * i, "CPP" + i));
+		}
+
+		GeneralAbstraction exact = new GeneralAbstraction();
+		exact.setPowerPlants(pd);
+		exact.performNew();
+
+		GeneralAbstraction quantized = new GeneralAbstraction();
+		quantized.setPowerPlants(pd);
+		quantized.setResolution(0.01);
+		quantized.performNew();
+
+		Assert.assertTrue(PowerPlantUtil.compareIntervals(
+				exact.getFeasibleRegions(), quantized.getFeasibleRegions()));
+		Assert.assertTrue(PowerPlantUtil.compareIntervals(exact.getHoles(),
+				quantized.getHoles()));
+	}
+
+	/**
+	 * Incremental updates in quantized mode give exactly the regions of a
+	 * complete quantized abstraction
+	 */
+	@Test
+	public void testQuantizedIncrementalGeneralAbstraction() {
+		Random random = new Random(13);
+		List<PowerPlantData> plants = new ArrayList<PowerPlantData>();
+		for (int i = 0; i < 12; ++i) {
+			plants.add(PowerPlantFactory.getSimplePlant(
+					20.013 + random.nextInt(30) * 1.1,
+					60.007 + random.nextInt(40) * 0.7, "CPP" + i));
+		}
+		GeneralAbstraction incremental = new GeneralAbstraction();
+		incremental.setPowerPlants(new ArrayList<PowerPlantData>(plants));
+		incremental.setResolution(0.01);
+		incremental.performNew();
+
+		for (int step = 0; step < 12; ++step) {
+			if (step % 2 == 0) {
+				PowerPlantData changed = plants.get(random.nextInt(plants
+						.size()));
+				changed.setPowerBoundaries(new Interval<Double>(
+						10.003 + random.nextInt(60) * 0.3,
+						80.001 + random.nextInt(40) * 1.3));
+				incremental.updatePowerPlant(changed);
+			} else {
+				PowerPlantData joining = PowerPlantFactory.getOnPlant(
+						5.004 + random.nextInt(10), 30.0, "New" + step);
+				plants.add(joining);
+				incremental.addPowerPlant(joining);
+			}
+
+			GeneralAbstraction complete = new GeneralAbstraction();
+			complete.setPowerPlants(plants);
+			complete.setResolution(0.01);
+			complete.performNew();
+			Assert.assertEquals(complete.getFeasibleRegions(),
+					incremental.getFeasibleRegions());
+			Assert.assertEquals(complete.getHoles(), incremental.getHoles());
+		}
+	}
+
+	/**
+	 * Temporal steps are compacted like the general regions, so temporal
+	 * abstraction still converges to them
+	 */
+	@Test
+	public void testCompactedTemporalConvergence() {
+		Collection<PowerPlantData> pd = new ArrayList<PowerPlantData>(3);
+		pd.add(PowerPlantFactory.getSimplePlant(20.0, 30.0, 25.0, 5.0, "CPP1"));
+		pd.add(PowerPlantFactory.getSimplePlant(50.0, 60.0, 55.0, 5.0, "CPP2"));
+		pd.add(PowerPlantFactory.getSimplePlant(100.0, 110.0, 0.0, 5.0,
+				"CPP3"));
+
+		GeneralAbstraction ga = new GeneralAbstraction();
+		ga.setPowerPlants(pd);
+		ga.setMaxRegions(2);
+		ga.perform();
+		Assert.assertEquals(2, ga.getFeasibleRegions().size());
+
+		TemporalAbstraction ta = new TemporalAbstraction();
+		ta.setPowerPlants(pd);
+		ta.setMaxRegions(2);
+		ta.setGeneralFeasibleRegions(ga.getFeasibleRegions());
+		ta.setGeneralHoles(ga.getHoles());
+		ta.perform(40);
+
+		Assert.assertTrue(ta.getRegionSequence().length() < 40);
+		Assert.assertEquals(ga.getFeasibleRegions(), ta.getAllFeasibleRegions()
+				.get(ta.getAllFeasibleRegions().size() - 1));
+		for (SortedSet<Interval<Double>> regions : ta.getAllFeasibleRegions())
+			Assert.assertTrue(regions.size() <= 2);
+		Assert.assertTrue(ta.getSavedHoleConstraints() > 0);
+	}
+
+	/**
+	 * Children with the same configuration in a different order hit the
+	 * cache and yield the same regions
+	 */
+	@Test
+	public void testRegionCache() {
+		List<PowerPlantData> pd = new ArrayList<PowerPlantData>(6);
+		for (int i = 0; i < 6; ++i) {
+			pd.add(PowerPlantFactory.getSimplePlant(5 + 2 * i, 12 + 3 * i,
+					"CPP" + i));
+		}
+		RegionCache cache = new RegionCache(2);
+
+		GeneralAbstraction first = new GeneralAbstraction();
+		first.setRegionCache(cache);
+		first.setPowerPlants(pd);
+		first.performNew();
+
+		List<PowerPlantData> reversed = new ArrayList<PowerPlantData>(pd);
+		Collections.reverse(reversed);
+		GeneralAbstraction second = new GeneralAbstraction();
+		second.setRegionCache(cache);
+		second.setPowerPlants(reversed);
+		second.performNew();
+
+		Assert.assertEquals(1, cache.getMisses());
+		Assert.assertEquals(1, cache.getHits());
+		Assert.assertEquals(first.getFeasibleRegions(),
+				second.getFeasibleRegions());
+		Assert.assertEquals(first.getHoles(), second.getHoles());
+
+		// a different resolution is a different configuration
+		second.setResolution(0.5);
+		second.performNew();
+		Assert.assertEquals(2, cache.getMisses());
+		Assert.assertEquals(2, cache.size());
+	}
 }
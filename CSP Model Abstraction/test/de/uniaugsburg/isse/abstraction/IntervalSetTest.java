@@ -0,0 +1,168 @@
+package de.uniaugsburg.isse.abstraction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.uniaugsburg.isse.abstraction.types.Interval;
+import de.uniaugsburg.isse.abstraction.types.IntervalSet;
+import de.uniaugsburg.isse.abstraction.types.QuantizedIntervalSet;
+import de.uniaugsburg.isse.abstraction.types.RegionSequence;
+import de.uniaugsburg.isse.util.PowerPlantUtil;
+
+public class IntervalSetTest {
+
+	@Test
+	public void testCoalesceUnsortedAndTouching() {
+		IntervalSet set = IntervalSet.fromBounds(new double[] { 10.0, 12.0, 1.0, 3.0, 3.0, 5.0, 4.0, 6.0 });
+		Assert.assertEquals(2, set.size());
+		Assert.assertEquals(1.0, set.getMin(0), 0.0);
+		Assert.assertEquals(6.0, set.getMax(0), 0.0);
+		Assert.assertEquals(10.0, set.getMin(1), 0.0);
+		Assert.assertEquals(12.0, set.getMax(1), 0.0);
+	}
+
+	@Test
+	public void testPlusMatchesBoxedImplementation() {
+		Collection<Interval<Double>> first = PowerPlantFactory.getCollection(new double[] { 0.0, 0.0, 5.0, 10.0 });
+		Collection<Interval<Double>> second = PowerPlantFactory.getCollection(new double[] { 0.0, 0.0, 20.0, 30.0 });
+
+		IntervalSet sum = IntervalSet.of(first).plus(IntervalSet.of(second));
+		SortedSet<Interval<Double>> expected = IntervalSet.of(PowerPlantUtil.plusSets(first, second)).toSortedSet();
+
+		Assert.assertTrue(PowerPlantUtil.compareIntervals(expected, sum.toSortedSet()));
+		Assert.assertEquals(3, sum.size()); // {0} [5 10] [20 30] [25 40] -> [20 30] and [25 40] merge
+	}
+
+	@Test
+	public void testHoles() {
+		IntervalSet set = IntervalSet.fromBounds(new double[] { 0.0, 0.0, 5.0, 10.0, 20.0, 40.0 });
+		IntervalSet holes = set.holes();
+		Assert.assertEquals(2, holes.size());
+		Assert.assertEquals(0.0, holes.getMin(0), 0.0);
+		Assert.assertEquals(5.0, holes.getMax(0), 0.0);
+		Assert.assertEquals(10.0, holes.getMin(1), 0.0);
+		Assert.assertEquals(20.0, holes.getMax(1), 0.0);
+		Assert.assertTrue(IntervalSet.of(3.0, 8.0).holes().isEmpty());
+	}
+
+	@Test
+	public void testUnionAndContains() {
+		IntervalSet a = IntervalSet.fromBounds(new double[] { 0.0, 2.0, 10.0, 12.0 });
+		IntervalSet b = IntervalSet.fromBounds(new double[] { 1.0, 4.0, 20.0, 21.0 });
+		IntervalSet union = a.union(b);
+		Assert.assertEquals(IntervalSet.fromBounds(new double[] { 0.0, 4.0, 10.0, 12.0, 20.0, 21.0 }), union);
+		Assert.assertTrue(union.contains(3.0));
+		Assert.assertTrue(union.contains(21.0));
+		Assert.assertFalse(union.contains(5.0));
+		Assert.assertFalse(union.contains(-1.0));
+	}
+
+	@Test
+	public void testConvergesAndAdapters() {
+		Collection<Interval<Double>> boxed = new ArrayList<Interval<Double>>();
+		boxed.add(new Interval<Double>(5.0, 10.0));
+		boxed.add(new Interval<Double>(0.0, 0.0));
+		IntervalSet set = IntervalSet.of(boxed);
+		Assert.assertEquals(2, set.toSortedSet().size());
+		Assert.assertEquals(0.0, set.toSortedSet().first().max, 0.0);
+
+		IntervalSet close = IntervalSet.fromBounds(new double[] { 0.0, 0.05, 5.0, 10.05 });
+		Assert.assertTrue(set.converges(close, 0.1));
+		Assert.assertFalse(set.converges(IntervalSet.of(0.0, 10.0), 0.1));
+	}
+
+	@Test
+	public void testBoundsOfEmptySetAndCopies() {
+		IntervalSet empty = IntervalSet.of(new ArrayList<Interval<Double>>());
+		try {
+			empty.getLowerBound();
+			Assert.fail();
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+		try {
+			empty.getUpperBound();
+			Assert.fail();
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+		double[] bounds = new double[] { 5, 10, 0, 0, 99, 99 };
+		IntervalSet set = IntervalSet.fromBounds(bounds, 2);
+		bounds[0] = 1;
+		Assert.assertEquals(IntervalSet.fromBounds(new double[] { 0, 0, 5, 10 }), set);
+	}
+
+	@Test
+	public void testQuantizedSumIsExact() {
+		// 0.1 + 0.2 != 0.3 in doubles, but 10 + 20 ticks of 0.01 are 30 ticks
+		QuantizedIntervalSet a = QuantizedIntervalSet.quantize(IntervalSet.of(0.1, 0.2), 0.01);
+		QuantizedIntervalSet b = QuantizedIntervalSet.quantize(IntervalSet.of(0.2, 0.3), 0.01);
+		QuantizedIntervalSet sum = a.plus(b);
+		Assert.assertEquals(30, sum.getMinTicks(0));
+		Assert.assertEquals(50, sum.getMaxTicks(0));
+		Assert.assertEquals(QuantizedIntervalSet.quantize(IntervalSet.of(0.3, 0.5), 0.01), sum);
+		Assert.assertEquals(QuantizedIntervalSet.quantize(IntervalSet.of(0.3, 0.5), 0.01).hashCode(), sum.hashCode());
+	}
+
+	@Test
+	public void testQuantizationMergesNearDuplicates() {
+		IntervalSet nearlyTouching = IntervalSet.fromBounds(new double[] { 0.0, 1.0, 1.004, 2.0, 5.0, 6.0 });
+		QuantizedIntervalSet quantized = QuantizedIntervalSet.quantize(nearlyTouching, 0.01);
+		Assert.assertEquals(2, quantized.size());
+		Assert.assertEquals(1, quantized.holes().size());
+		Assert.assertEquals(IntervalSet.fromBounds(new double[] { 0.0, 2.0, 5.0, 6.0 }), quantized.toIntervalSet());
+	}
+
+	@Test
+	public void testCloseSmallestHoles() {
+		// holes of width 5, 1, 3, 1
+		IntervalSet set = IntervalSet.fromBounds(new double[] { 0, 0, 5, 10, 11, 20, 23, 30, 31, 40 });
+		IntervalSet compacted = set.closeSmallestHoles(3, Double.POSITIVE_INFINITY);
+		Assert.assertEquals(IntervalSet.fromBounds(new double[] { 0, 0, 5, 20, 23, 40 }), compacted);
+		Assert.assertEquals(2.0, compacted.getMeasure() - set.getMeasure(), 1e-9);
+
+		// budget only suffices for the two holes of width 1
+		Assert.assertEquals(3, set.closeSmallestHoles(1, 4.0).size());
+		Assert.assertSame(set, set.closeSmallestHoles(5, Double.POSITIVE_INFINITY));
+		Assert.assertEquals(IntervalSet.of(0, 40), set.closeSmallestHoles(1, Double.POSITIVE_INFINITY));
+	}
+
+	@Test
+	public void testRegionSequence() {
+		IntervalSet a = IntervalSet.of(0, 10), b = IntervalSet.fromBounds(new double[] { 0, 0, 5, 10 });
+		RegionSequence.Builder builder = new RegionSequence.Builder();
+		builder.add(a).add(b).add(IntervalSet.fromBounds(b.toArray())).add(b).add(a);
+		RegionSequence sequence = builder.build();
+		Assert.assertEquals(5, sequence.length());
+		Assert.assertEquals(3, sequence.getRunCount());
+		Assert.assertEquals(b, sequence.get(4));
+		Assert.assertEquals(a, sequence.get(5));
+
+		RegionSequence.Cursor cursor = sequence.cursor();
+		for (int t = 1; t <= 5; ++t)
+			Assert.assertEquals(sequence.get(t), cursor.next());
+		Assert.assertFalse(cursor.hasNext());
+
+		// equal steps share their boxed sets
+		Assert.assertEquals(5, sequence.getFeasibleRegions().size());
+		Assert.assertSame(sequence.getFeasibleRegions().get(1), sequence.getFeasibleRegions().get(3));
+		Assert.assertEquals(b.holes().toSortedSet(), sequence.getHoles().get(2));
+		Assert.assertEquals(sequence, RegionSequence.of(sequence.getFeasibleRegions()));
+	}
+
+	@Test
+	public void testClip() {
+		IntervalSet set = IntervalSet.fromBounds(new double[] { 0, 0, 5, 10, 20, 30 });
+		Assert.assertSame(set, set.clip(-1, 30));
+		Assert.assertEquals(IntervalSet.fromBounds(new double[] { 8, 10, 20, 25 }), set.clip(8, 25));
+		Assert.assertEquals(IntervalSet.of(5, 7), set.clip(2, 7));
+		// nothing within, the closest values remain
+		Assert.assertEquals(IntervalSet.fromBounds(new double[] { 10, 10, 20, 20 }), set.clip(12, 15));
+		Assert.assertEquals(IntervalSet.point(30), set.clip(40, 50));
+	}
+}
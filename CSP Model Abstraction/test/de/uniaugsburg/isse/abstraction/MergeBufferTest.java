@@ -0,0 +1,64 @@
+package de.uniaugsburg.isse.abstraction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.uniaugsburg.isse.abstraction.merging.MergeBuffer;
+import de.uniaugsburg.isse.abstraction.types.Interval;
+import de.uniaugsburg.isse.abstraction.types.IntervalSet;
+import de.uniaugsburg.isse.util.PowerPlantUtil;
+
+public class MergeBufferTest {
+
+	@Test
+	public void testMergeIn() {
+		MergeBuffer buffer = new MergeBuffer(2);
+		buffer.mergeIn(4.0, 6.0);
+		buffer.mergeIn(9., 12.);
+		buffer.mergeIn(15., 17.);
+		buffer.mergeIn(18., 23.);
+		buffer.mergeIn(2., 3.);
+		Assert.assertEquals(IntervalSet.fromBounds(new double[] { 2, 3, 4, 6, 9, 12, 15, 17, 18, 23 }),
+				buffer.toIntervalSet());
+
+		buffer.mergeIn(1., 10.); // swallows [2 3] [4 6] and overlaps [9 12]
+		Assert.assertEquals(IntervalSet.fromBounds(new double[] { 1, 12, 15, 17, 18, 23 }), buffer.toIntervalSet());
+
+		buffer.mergeIn(12., 15.); // touching on both sides
+		Assert.assertEquals(IntervalSet.fromBounds(new double[] { 1, 17, 18, 23 }), buffer.toIntervalSet());
+
+		buffer.mergeIn(15., 25.);
+		Assert.assertEquals(1, buffer.size());
+		Assert.assertEquals(1.0, buffer.getMin(0), 0.0);
+		Assert.assertEquals(25.0, buffer.getMax(0), 0.0);
+	}
+
+	@Test
+	public void testBulkModeMatchesMergeIn() {
+		Random random = new Random(3);
+		MergeBuffer single = new MergeBuffer();
+		MergeBuffer bulk = new MergeBuffer();
+		for (int i = 0; i < 500; ++i) {
+			double min = random.nextInt(2000);
+			double max = min + random.nextInt(5);
+			single.mergeIn(min, max);
+			bulk.add(min, max);
+		}
+		Assert.assertEquals(single.toIntervalSet(), bulk.toIntervalSet());
+	}
+
+	@Test
+	public void testPlusSets() {
+		Collection<Interval<Double>> plant = new ArrayList<Interval<Double>>(2);
+		plant.add(new Interval<Double>(0.0, 0.0));
+		plant.add(new Interval<Double>(10.0, 20.0));
+
+		MergeBuffer buffer = PowerPlantUtil.plusSets(MergeBuffer.zero(), plant);
+		buffer = PowerPlantUtil.plusSets(buffer, plant);
+		Assert.assertEquals(IntervalSet.fromBounds(new double[] { 0, 0, 10, 40 }), buffer.toIntervalSet());
+	}
+}
@@ -0,0 +1,59 @@
+package de.uniaugsburg.isse.abstraction;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.uniaugsburg.isse.powerplants.PlantStateTable;
+import de.uniaugsburg.isse.powerplants.PowerPlantData;
+import de.uniaugsburg.isse.powerplants.PowerPlantState;
+import de.uniaugsburg.isse.util.PowerPlantUtil;
+
+public class PlantStateTableTest {
+
+	private PlantStateTable getTable(int plants) {
+		PlantStateTable table = new PlantStateTable(2);
+		for (int i = 0; i < plants; ++i) {
+			PowerPlantData pd = PowerPlantUtil.getPowerPlant("P" + i, 10 + i, 40 + i, 0.1);
+			PowerPlantState state = new PowerPlantState();
+			state.setData(pd);
+			state.initialize();
+			table.add(state);
+		}
+		return table;
+	}
+
+	@Test
+	public void testSnapshotRestore() {
+		PlantStateTable table = getTable(20);
+		Assert.assertEquals(20, table.size());
+		PlantStateTable.Snapshot snapshot = table.snapshot();
+
+		int id = table.getId("P7");
+		Assert.assertEquals("P7", table.getName(id));
+		Assert.assertEquals(-1, table.getId("P20"));
+		Assert.assertEquals(17.0, table.getPowerMin(id), 0.0);
+
+		table.setPower(id, 30.0, 30.0);
+		table.updateRunning(id, false, true);
+		Assert.assertEquals(0, table.getConsRunningMin(id));
+		Assert.assertEquals(2, table.getConsRunningMax(id));
+
+		table.restore(snapshot);
+		Assert.assertEquals(17.0, table.getPowerMax(id), 0.0);
+		Assert.assertTrue(table.isRunningMin(id));
+		Assert.assertEquals(1, table.getConsRunningMin(id));
+		Assert.assertEquals(0, table.getConsStoppingMin(id));
+	}
+
+	@Test
+	public void testInitStateData() {
+		PlantStateTable table = getTable(3);
+		Map<String, PowerPlantState> states = new HashMap<String, PowerPlantState>();
+		states.put("P1", table.toState(1));
+		CplexExporter exporter = new CplexExporter();
+		Assert.assertEquals(exporter.createInitStateData(states), exporter.createInitStateData(table, new int[] { 1 }));
+	}
+}
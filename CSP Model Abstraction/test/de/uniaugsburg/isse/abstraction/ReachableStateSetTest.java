@@ -0,0 +1,96 @@
+package de.uniaugsburg.isse.abstraction;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.uniaugsburg.isse.abstraction.types.Interval;
+import de.uniaugsburg.isse.abstraction.types.IntervalSet;
+import de.uniaugsburg.isse.abstraction.types.RegionSequence;
+import de.uniaugsburg.isse.constraints.BoundsConstraint;
+import de.uniaugsburg.isse.constraints.RateOfChangeConstraint;
+import de.uniaugsburg.isse.constraints.StopTimeConstraint;
+import de.uniaugsburg.isse.powerplants.PowerPlantData;
+import de.uniaugsburg.isse.util.AbstractionParameterLiterals;
+import de.uniaugsburg.isse.util.PowerPlantUtil;
+
+public class ReachableStateSetTest {
+
+	private RegionSequence perform(PowerPlantData pd, boolean exact, int T) {
+		TemporalAbstraction ta = new TemporalAbstraction();
+		ta.setPowerPlants(Arrays.asList(pd));
+		ta.setExactStopTimes(exact);
+		ta.perform(T);
+		return ta.getRegionSequence();
+	}
+
+	private boolean contains(IntervalSet outer, IntervalSet inner) {
+		for (int i = 0; i < inner.size(); ++i) {
+			int j = 0;
+			while (j < outer.size() && outer.getMax(j) < inner.getMin(i))
+				++j;
+			if (j == outer.size() || outer.getMin(j) > inner.getMin(i) || outer.getMax(j) < inner.getMax(i))
+				return false;
+		}
+		return true;
+	}
+
+	private void assertClose(IntervalSet expected, IntervalSet actual) {
+		Assert.assertEquals(expected.toString() + " vs " + actual, expected.size(), actual.size());
+		Assert.assertArrayEquals(expected.toArray(), actual.toArray(), 1e-9);
+	}
+
+	@Test
+	public void testStoppedBranchKeepsRampLimits() {
+		// may stop at any power, no gradual shutdown
+		PowerPlantData pd = new PowerPlantData("P");
+		pd.setPowerBoundaries(new Interval<Double>(20.0, 150.0));
+		pd.addConstraint(new BoundsConstraint(pd));
+		pd.addConstraint(new RateOfChangeConstraint(pd, 0.1));
+		pd.put("minOnTime", "1");
+		pd.put("minOffTime", "2");
+		pd.addConstraint(new StopTimeConstraint(pd));
+		pd.put(AbstractionParameterLiterals.POWER_INIT, "100.0");
+		pd.put(AbstractionParameterLiterals.CONSRUNNING_INIT, "1");
+		pd.put(AbstractionParameterLiterals.CONSSTOPPING_INIT, "0");
+
+		RegionSequence intervals = perform(pd, false, 3);
+		RegionSequence exact = perform(pd, true, 3);
+		assertClose(IntervalSet.fromBounds(new double[] { 0, 0, 20, 110 }), intervals.get(1));
+		assertClose(IntervalSet.fromBounds(new double[] { 0, 0, 90, 110 }), exact.get(1));
+		assertClose(IntervalSet.fromBounds(new double[] { 0, 0, 81, 121 }), exact.get(2));
+		// restarts after two steps off
+		assertClose(IntervalSet.fromBounds(new double[] { 0, 0, 20, 22, 72.9, 133.1 }), exact.get(3));
+		for (int t = 1; t <= 3; ++t)
+			Assert.assertTrue(contains(intervals.get(t), exact.get(t)));
+	}
+
+	@Test
+	public void testWithinIntervalStates() {
+		Random random = new Random(5);
+		for (int i = 0; i < 100; ++i) {
+			double min = 5 + random.nextInt(20);
+			double max = min + 10 + random.nextInt(80);
+			PowerPlantData pd = PowerPlantUtil.getPowerPlant("P" + i, min, max, 0.05 + 0.3 * random.nextDouble());
+			pd.put("minOffTime", Integer.toString(random.nextInt(5)));
+			pd.put("minOnTime", Integer.toString(random.nextInt(5)));
+			pd.addConstraint(new StopTimeConstraint(pd));
+			if (random.nextBoolean()) {
+				pd.put(AbstractionParameterLiterals.POWER_INIT, "0.0");
+				pd.put(AbstractionParameterLiterals.CONSRUNNING_INIT, "0");
+				pd.put(AbstractionParameterLiterals.CONSSTOPPING_INIT, Integer.toString(1 + random.nextInt(4)));
+			} else {
+				pd.put(AbstractionParameterLiterals.POWER_INIT, Double.toString(min + (max - min) * random.nextDouble()));
+				pd.put(AbstractionParameterLiterals.CONSRUNNING_INIT, Integer.toString(1 + random.nextInt(4)));
+			}
+
+			RegionSequence intervals = perform(pd, false, 15);
+			RegionSequence exact = perform(pd, true, 15);
+			Assert.assertEquals(intervals.length(), exact.length());
+			for (int t = 1; t <= exact.length(); ++t)
+				Assert.assertTrue(pd.getName() + " at " + t, contains(intervals.get(t), exact.get(t)));
+		}
+	}
+}
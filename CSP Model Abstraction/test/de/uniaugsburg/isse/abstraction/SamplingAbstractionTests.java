@@ -13,6 +13,7 @@ import de.uniaugsburg.isse.abstraction.types.PiecewiseLinearFunction;
 import de.uniaugsburg.isse.powerplants.PowerPlantData;
 import de.uniaugsburg.isse.solver.AbstractModel;
 import de.uniaugsburg.isse.solver.AbstractSolver;
+import de.uniaugsburg.isse.solver.AbstractSolverFactory;
 import de.uniaugsburg.isse.util.AbstractionParameterLiterals;
 
 public class SamplingAbstractionTests {
@@ -136,6 +137,278 @@ public class SamplingAbstractionTests {
 
 	}
 
+	/**
+	 * Solves to the requested input, the objective is half or twice of it
+	 */
+	private static class EchoSolver extends StubSolver {
+		private double input;
+		private boolean minimize;
+
+		@Override
+		public void setInput(double value, double tolerance) {
+			input = value;
+		}
+
+		@Override
+		public void setObjective(String decExpr, boolean minimize) {
+			this.minimize = minimize;
+		}
+
+		private int warmStarts; // solves starting from a previous solution
+		private boolean hasSolution;
+
+		private int parametricSolves;
+
+		@Override
+		public void solve() {
+			solved = true;
+			if (isWarmStart() && hasSolution)
+				++warmStarts;
+			if (isParametric())
+				++parametricSolves;
+			hasSolution = true;
+		}
+
+		@Override
+		public void resetWarmStart() {
+			hasSolution = false;
+		}
+
+		@Override
+		public double getResult(String decExpr) {
+			return input;
+		}
+
+		@Override
+		public double getObjective() {
+			return minimize ? input / 2 : 2 * input;
+		}
+	}
+
+	/**
+	 * Maximization bends upwards
+	 */
+	private static class CurvedEchoSolver extends EchoSolver {
+		@Override
+		public double getObjective() {
+			double input = getResult(null);
+			return super.getObjective() < input ? input / 2 : input + input * input / 40;
+		}
+	}
+
+	/**
+	 * Maximization is flat up to an input of 20
+	 */
+	private static class FlatEchoSolver extends EchoSolver {
+		@Override
+		public double getObjective() {
+			double input = getResult(null);
+			return super.getObjective() < input ? input / 2 : Math.max(2 * input, 40);
+		}
+	}
+
+	/**
+	 * Solves to the lowest input allowed, so the previous sample bounds the next one
+	 */
+	private static class LowestInputSolver extends EchoSolver {
+		private double low;
+
+		@Override
+		public void setInput(double value, double tolerance) {
+			low = value - tolerance;
+			super.setInput(low, tolerance);
+		}
+
+		@Override
+		public void setInputLowerBound(double lowerBound) {
+			super.setInput(Math.max(low, lowerBound), 0.0);
+		}
+	}
+
+	private SamplingAbstraction getEchoSampling(int samplingThreads) {
+		return getEchoSampling(samplingThreads, false);
+	}
+
+	private SamplingAbstraction getEchoSampling(int samplingThreads, final boolean curved) {
+		SortedSet<Interval<Double>> feasibleRegions = new TreeSet<Interval<Double>>();
+		feasibleRegions.add(new Interval<Double>(1.0, 4.0));
+		feasibleRegions.add(new Interval<Double>(10.0, 40.0));
+
+		SamplingAbstraction sa = new SamplingAbstraction(feasibleRegions, null);
+		sa.setSolver(curved ? new CurvedEchoSolver() : new EchoSolver());
+		sa.setSolverFactory(new AbstractSolverFactory() {
+			@Override
+			public AbstractSolver createSolver() {
+				return curved ? new CurvedEchoSolver() : new EchoSolver();
+			}
+
+			@Override
+			public AbstractModel createModel() {
+				return createSolver().getModel();
+			}
+		});
+		sa.setSamplingThreads(samplingThreads);
+		sa.getMinimizationDecisionExpressions().add("A");
+		sa.getMaximizationDecisionExpressions().add("A");
+		return sa;
+	}
+
+	@Test
+	public void testConcurrentSampling() {
+		SamplingAbstraction sequential = getEchoSampling(1);
+		sequential.perform(12);
+		SamplingAbstraction concurrent = getEchoSampling(3);
+		concurrent.perform(12);
+
+		for (boolean minimize : new boolean[] { true, false }) {
+			PiecewiseLinearFunction expected = sequential.getPiecewiseLinearFunction("A", minimize);
+			PiecewiseLinearFunction actual = concurrent.getPiecewiseLinearFunction("A", minimize);
+			Assert.assertEquals(sequential.getInputPoints().size(), actual.getNumberInputOutputPairs());
+			Assert.assertEquals(expected.getNumberInputOutputPairs(), actual.getNumberInputOutputPairs());
+			Assert.assertArrayEquals(expected.getIns(), actual.getIns(), 1e-9);
+			Assert.assertArrayEquals(expected.getOuts(), actual.getOuts(), 1e-9);
+		}
+	}
+
+	@Test
+	public void testConcurrentSamplingFromActualInputs() {
+		SortedSet<Interval<Double>> feasibleRegions = new TreeSet<Interval<Double>>();
+		feasibleRegions.add(new Interval<Double>(1.0, 4.0));
+		feasibleRegions.add(new Interval<Double>(10.0, 39.0));
+		SamplingAbstraction sequential = getLowestInputSampling(feasibleRegions, 1);
+		sequential.perform(12);
+		PiecewiseLinearFunction expected = sequential.getPiecewiseLinearFunction("A", false);
+
+		for (int threads = 2; threads <= 6; ++threads) {
+			SamplingAbstraction concurrent = getLowestInputSampling(feasibleRegions, threads);
+			concurrent.perform(12);
+			PiecewiseLinearFunction actual = concurrent.getPiecewiseLinearFunction("A", false);
+			Assert.assertArrayEquals(expected.getIns(), actual.getIns(), 0.0);
+			Assert.assertArrayEquals(expected.getOuts(), actual.getOuts(), 0.0);
+		}
+	}
+
+	private SamplingAbstraction getLowestInputSampling(SortedSet<Interval<Double>> feasibleRegions, int samplingThreads) {
+		SamplingAbstraction sa = new SamplingAbstraction(feasibleRegions, null);
+		sa.setSolver(new LowestInputSolver());
+		sa.setSolverFactory(new AbstractSolverFactory() {
+			@Override
+			public AbstractSolver createSolver() {
+				return new LowestInputSolver();
+			}
+
+			@Override
+			public AbstractModel createModel() {
+				return createSolver().getModel();
+			}
+		});
+		sa.setSamplingThreads(samplingThreads);
+		sa.getMaximizationDecisionExpressions().add("A");
+		return sa;
+	}
+
+	@Test
+	public void testSamplingWithoutFeasibleRegions() {
+		for (int threads : new int[] { 1, 3 }) {
+			SamplingAbstraction sa = getEchoSampling(threads);
+			sa.setGeneralFeasibleRegions(new TreeSet<Interval<Double>>());
+			sa.perform(12);
+			Assert.assertTrue(sa.getInputPoints().isEmpty());
+			Assert.assertEquals(0, sa.getSolveCount());
+			Assert.assertEquals(0, sa.getPiecewiseLinearFunction("A", false).getNumberInputOutputPairs());
+		}
+	}
+
+	@Test
+	public void testWarmStart() {
+		SamplingAbstraction sa = getEchoSampling(1);
+		sa.perform(12);
+		Assert.assertEquals(0, ((EchoSolver) sa.getSolver()).warmStarts);
+
+		sa = getEchoSampling(1);
+		sa.setWarmStart(true);
+		sa.perform(12);
+		// all but the first point of each criterion
+		Assert.assertEquals(2 * (sa.getInputPoints().size() - 1), ((EchoSolver) sa.getSolver()).warmStarts);
+	}
+
+	@Test
+	public void testParametric() {
+		SamplingAbstraction sequential = getEchoSampling(1);
+		sequential.perform(12);
+		SamplingAbstraction parametric = getEchoSampling(1);
+		parametric.setParametric(true);
+		parametric.perform(12);
+
+		EchoSolver solver = (EchoSolver) parametric.getSolver();
+		Assert.assertEquals(2 * parametric.getInputPoints().size(), solver.parametricSolves);
+		Assert.assertFalse(solver.isParametric());
+		Assert.assertArrayEquals(sequential.getPiecewiseLinearFunction("A", false).getOuts(), parametric
+				.getPiecewiseLinearFunction("A", false).getOuts(), 1e-9);
+	}
+
+	@Test
+	public void testMonotoneBracketing() {
+		SamplingAbstraction sequential = getEchoSampling(1);
+		sequential.setSolver(new FlatEchoSolver());
+		sequential.perform(31);
+		SamplingAbstraction monotone = getEchoSampling(1);
+		monotone.setSolver(new FlatEchoSolver());
+		monotone.getMonotonicDecisionExpressions().add("A");
+		monotone.perform(31);
+
+		int points = monotone.getInputPoints().size();
+		Assert.assertTrue(monotone.getSolveCount() < sequential.getSolveCount());
+		Assert.assertEquals(2 * points, sequential.getSolveCount());
+		Assert.assertEquals(0.0, monotone.getInterpolationError(), 1e-9);
+		for (boolean minimize : new boolean[] { true, false }) {
+			PiecewiseLinearFunction expected = sequential.getPiecewiseLinearFunction("A", minimize);
+			PiecewiseLinearFunction actual = monotone.getPiecewiseLinearFunction("A", minimize);
+			Assert.assertEquals(points, actual.getNumberInputOutputPairs());
+			Assert.assertArrayEquals(expected.getIns(), actual.getIns(), 1e-9);
+			Assert.assertArrayEquals(expected.getOuts(), actual.getOuts(), 1e-9);
+		}
+
+		// within the tolerance, the error is bounded by the outputs of the brackets
+		monotone = getEchoSampling(1);
+		monotone.getMonotonicDecisionExpressions().add("A");
+		monotone.setMonotoneTolerance(10.0);
+		monotone.perform(31);
+		Assert.assertTrue(monotone.getInterpolationError() > 0.0);
+		Assert.assertTrue(monotone.getInterpolationError() <= 10.0);
+		PiecewiseLinearFunction pwl = monotone.getPiecewiseLinearFunction("A", false);
+		for (int i = 0; i < pwl.getNumberInputOutputPairs(); ++i)
+			Assert.assertEquals(2 * pwl.getIns()[i], pwl.getOuts()[i], monotone.getInterpolationError());
+	}
+
+	@Test
+	public void testAdaptiveSampling() {
+		// linear, one midpoint per region suffices
+		SamplingAbstraction linear = getEchoSampling(1);
+		linear.setAdaptiveTolerance(0.01);
+		linear.perform(30);
+		Assert.assertEquals(2 * (4 + 2), linear.getSolveCount());
+		Assert.assertEquals(6, linear.getPiecewiseLinearFunction("A", true).getNumberInputOutputPairs());
+
+		// bisected until each segment is linear within the tolerance
+		for (int threads : new int[] { 1, 2 }) {
+			SamplingAbstraction curved = getEchoSampling(threads, true);
+			curved.setAdaptiveTolerance(0.5);
+			curved.perform(100);
+			Assert.assertTrue(curved.getSolveCount() < 100 + 6);
+			PiecewiseLinearFunction pwl = curved.getPiecewiseLinearFunction("A", false);
+			Assert.assertTrue(pwl.getNumberInputOutputPairs() > 6);
+			double[] ins = pwl.getIns();
+			double[] outs = pwl.getOuts();
+			for (int i = 1; i < pwl.getNumberInputOutputPairs(); ++i) {
+				if (ins[i - 1] >= 4.0 && ins[i] <= 10.0)
+					continue; // hole
+				double mid = (ins[i - 1] + ins[i]) / 2;
+				Assert.assertEquals((outs[i - 1] + outs[i]) / 2, mid + mid * mid / 40, 0.5);
+			}
+		}
+	}
+
 	@Test
 	public void testTooLittleSamplePoints() {
 		SortedSet<Interval<Double>> feasibleRegions = new TreeSet<Interval<Double>>();